@@ -46,7 +46,8 @@ CREATE TABLE IF NOT EXISTS soil_data (
     recorded_date DATETIME NOT NULL,
     CONSTRAINT fk_soil_user FOREIGN KEY (user_id) REFERENCES app_users(id) ON DELETE CASCADE,
     INDEX idx_soil_user_id (user_id),
-    INDEX idx_soil_recorded_date (recorded_date)
+    INDEX idx_soil_recorded_date (recorded_date),
+    INDEX idx_soil_user_date (user_id, recorded_date, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Weather data (from OpenWeather API)
@@ -61,6 +62,34 @@ CREATE TABLE IF NOT EXISTS weather_data (
     INDEX idx_weather_recorded_date (recorded_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Compacted weather: hourly/daily aggregates of readings past raw retention
+CREATE TABLE IF NOT EXISTS weather_rollup (
+    location VARCHAR(255) NOT NULL,
+    resolution VARCHAR(8) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    sample_count BIGINT NOT NULL,
+    temperature_sum DOUBLE NOT NULL,
+    temperature_min DOUBLE NOT NULL,
+    temperature_max DOUBLE NOT NULL,
+    humidity_sum DOUBLE NOT NULL,
+    humidity_min DOUBLE NOT NULL,
+    humidity_max DOUBLE NOT NULL,
+    rainfall_sum DOUBLE NOT NULL,
+    rainfall_min DOUBLE NOT NULL,
+    rainfall_max DOUBLE NOT NULL,
+    PRIMARY KEY (location, resolution, bucket_start),
+    INDEX idx_weather_rollup_bucket (resolution, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Location aliases: normalized location text -> OpenWeather city id and canonical key
+CREATE TABLE IF NOT EXISTS location_aliases (
+    alias VARCHAR(255) PRIMARY KEY,
+    city_id BIGINT NOT NULL,
+    location_key VARCHAR(255) NOT NULL,
+    created_at DATETIME NOT NULL,
+    INDEX idx_location_alias_city (city_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Recommendations (user x crop)
 CREATE TABLE IF NOT EXISTS recommendations (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -72,7 +101,20 @@ CREATE TABLE IF NOT EXISTS recommendations (
     CONSTRAINT fk_recommendation_crop FOREIGN KEY (crop_id) REFERENCES crops(id) ON DELETE CASCADE,
     INDEX idx_recommendation_user_id (user_id),
     INDEX idx_recommendation_crop_id (crop_id),
-    INDEX idx_recommendation_date (recommendation_date)
+    INDEX idx_recommendation_date (recommendation_date),
+    INDEX idx_recommendation_user_date (user_id, recommendation_date, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Per-crop recommendation rollup (maintained on insert, reconciled by a background job)
+CREATE TABLE IF NOT EXISTS crop_recommendation_stats (
+    crop_id BIGINT PRIMARY KEY,
+    rec_count BIGINT NOT NULL,
+    confidence_sum DOUBLE NOT NULL,
+    confidence_sq_sum DOUBLE NOT NULL DEFAULT 0,
+    confidence_min DOUBLE,
+    confidence_max DOUBLE,
+    updated_at DATETIME NOT NULL,
+    CONSTRAINT fk_crop_stats_crop FOREIGN KEY (crop_id) REFERENCES crops(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Optional: sample users. App DataLoader creates admin@crop.com, farmer@crop.com, officer@crop.com with password 'password123'.
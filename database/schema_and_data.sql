@@ -54,7 +54,8 @@ CREATE TABLE soil_data (
     recorded_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_soil_user FOREIGN KEY (user_id) REFERENCES app_users(id) ON DELETE CASCADE,
     INDEX idx_soil_user_id (user_id),
-    INDEX idx_soil_recorded_date (recorded_date)
+    INDEX idx_soil_recorded_date (recorded_date),
+    INDEX idx_soil_user_date (user_id, recorded_date, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Weather Data Table
@@ -69,6 +70,34 @@ CREATE TABLE weather_data (
     INDEX idx_weather_recorded_date (recorded_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Weather Rollup Table (hourly/daily aggregates of readings past raw retention)
+CREATE TABLE weather_rollup (
+    location VARCHAR(255) NOT NULL,
+    resolution VARCHAR(8) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    sample_count BIGINT NOT NULL,
+    temperature_sum DOUBLE NOT NULL,
+    temperature_min DOUBLE NOT NULL,
+    temperature_max DOUBLE NOT NULL,
+    humidity_sum DOUBLE NOT NULL,
+    humidity_min DOUBLE NOT NULL,
+    humidity_max DOUBLE NOT NULL,
+    rainfall_sum DOUBLE NOT NULL,
+    rainfall_min DOUBLE NOT NULL,
+    rainfall_max DOUBLE NOT NULL,
+    PRIMARY KEY (location, resolution, bucket_start),
+    INDEX idx_weather_rollup_bucket (resolution, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Location Aliases Table (normalized location text -> OpenWeather city and canonical key)
+CREATE TABLE location_aliases (
+    alias VARCHAR(255) PRIMARY KEY,
+    city_id BIGINT NOT NULL,
+    location_key VARCHAR(255) NOT NULL,
+    created_at DATETIME NOT NULL,
+    INDEX idx_location_alias_city (city_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Recommendations Table
 CREATE TABLE recommendations (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -80,7 +109,20 @@ CREATE TABLE recommendations (
     CONSTRAINT fk_recommendation_crop FOREIGN KEY (crop_id) REFERENCES crops(id) ON DELETE CASCADE,
     INDEX idx_recommendation_user_id (user_id),
     INDEX idx_recommendation_crop_id (crop_id),
-    INDEX idx_recommendation_date (recommendation_date)
+    INDEX idx_recommendation_date (recommendation_date),
+    INDEX idx_recommendation_user_date (user_id, recommendation_date, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Crop Recommendation Stats (per-crop rollup of recommendations)
+CREATE TABLE crop_recommendation_stats (
+    crop_id BIGINT PRIMARY KEY,
+    rec_count BIGINT NOT NULL,
+    confidence_sum DOUBLE NOT NULL,
+    confidence_sq_sum DOUBLE NOT NULL DEFAULT 0,
+    confidence_min DOUBLE,
+    confidence_max DOUBLE,
+    updated_at DATETIME NOT NULL,
+    CONSTRAINT fk_crop_stats_crop FOREIGN KEY (crop_id) REFERENCES crops(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- -----------------------------------------------------
@@ -199,6 +241,12 @@ INSERT INTO recommendations (user_id, crop_id, recommendation_date, confidence_s
 (10, 1, '2024-05-01 14:30:00', 88.5),
 (4, 3, '2024-05-10 15:45:00', 84.0);
 
+-- Build the crop rollup from the seeded recommendations
+INSERT INTO crop_recommendation_stats (crop_id, rec_count, confidence_sum, confidence_sq_sum, confidence_min, confidence_max, updated_at)
+SELECT crop_id, COUNT(*), SUM(confidence_score), SUM(confidence_score * confidence_score), MIN(confidence_score), MAX(confidence_score), NOW()
+FROM recommendations
+GROUP BY crop_id;
+
 -- -----------------------------------------------------
 -- 4. QUERY DEMONSTRATIONS
 -- -----------------------------------------------------
@@ -70,7 +70,7 @@ CREATE TABLE soil_data (
         REFERENCES app_users(id) ON DELETE CASCADE,
     INDEX idx_soil_user (user_id),
     INDEX idx_soil_date (recorded_date),
-    INDEX idx_soil_user_date (user_id, recorded_date)
+    INDEX idx_soil_user_date (user_id, recorded_date, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- =============================================================================
@@ -91,6 +91,42 @@ CREATE TABLE weather_data (
     INDEX idx_weather_loc_date (location, recorded_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =============================================================================
+-- TABLE: weather_rollup (hourly/daily aggregates of weather_data)
+-- Raw readings past retention are folded in and deleted by the retention job
+-- =============================================================================
+CREATE TABLE weather_rollup (
+    location VARCHAR(255) NOT NULL,
+    resolution VARCHAR(8) NOT NULL CHECK (resolution IN ('HOUR', 'DAY')),
+    bucket_start DATETIME NOT NULL,
+    sample_count BIGINT NOT NULL CHECK (sample_count > 0),
+    temperature_sum DOUBLE NOT NULL,
+    temperature_min DOUBLE NOT NULL,
+    temperature_max DOUBLE NOT NULL,
+    humidity_sum DOUBLE NOT NULL,
+    humidity_min DOUBLE NOT NULL,
+    humidity_max DOUBLE NOT NULL,
+    rainfall_sum DOUBLE NOT NULL,
+    rainfall_min DOUBLE NOT NULL,
+    rainfall_max DOUBLE NOT NULL,
+
+    PRIMARY KEY (location, resolution, bucket_start),
+    INDEX idx_weather_rollup_bucket (resolution, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================================================
+-- TABLE: location_aliases (normalized location text -> OpenWeather city)
+-- Weather is cached and stored under location_key, shared by every alias of a city
+-- =============================================================================
+CREATE TABLE location_aliases (
+    alias VARCHAR(255) PRIMARY KEY,
+    city_id BIGINT NOT NULL,
+    location_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_location_alias_city (city_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =============================================================================
 -- TABLE: recommendations
 -- =============================================================================
@@ -116,10 +152,27 @@ CREATE TABLE recommendations (
     INDEX idx_rec_user (user_id),
     INDEX idx_rec_crop (crop_id),
     INDEX idx_rec_date (recommendation_date),
-    INDEX idx_rec_user_date (user_id, recommendation_date),
+    INDEX idx_rec_user_date (user_id, recommendation_date, id),
     INDEX idx_rec_score (confidence_score)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =============================================================================
+-- TABLE: crop_recommendation_stats (per-crop rollup of recommendations)
+-- Maintained on every insert; reconciled against recommendations periodically
+-- =============================================================================
+CREATE TABLE crop_recommendation_stats (
+    crop_id BIGINT PRIMARY KEY,
+    rec_count BIGINT NOT NULL,
+    confidence_sum DOUBLE NOT NULL,
+    confidence_sq_sum DOUBLE NOT NULL DEFAULT 0,
+    confidence_min DOUBLE,
+    confidence_max DOUBLE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_crop_stats_crop FOREIGN KEY (crop_id)
+        REFERENCES crops(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =============================================================================
 -- SEED DATA: Users (Password: password123 - bcrypt hash)
 -- =============================================================================
@@ -227,6 +280,12 @@ INSERT INTO recommendations (user_id, crop_id, soil_data_id, confidence_score, n
 (4, 2, 19, 81.0, 72, 72, 76, 95, 90, '2024-04-20 12:30:00'),
 (5, 7, 20, 87.5, 65, 85, 80, 95, 100, '2024-04-25 13:45:00');
 
+-- Build the crop rollup from the seeded recommendations
+INSERT INTO crop_recommendation_stats (crop_id, rec_count, confidence_sum, confidence_sq_sum, confidence_min, confidence_max, updated_at)
+SELECT crop_id, COUNT(*), SUM(confidence_score), SUM(confidence_score * confidence_score), MIN(confidence_score), MAX(confidence_score), NOW()
+FROM recommendations
+GROUP BY crop_id;
+
 -- =============================================================================
 -- VALIDATION QUERIES
 -- =============================================================================
@@ -0,0 +1,102 @@
+-- =============================================================================
+-- SmartCrop - Upgrade from 1.0.0
+-- Database: MySQL 8.x
+-- Brings an existing 1.0.0 database up to the current schema. Production runs
+-- with ddl-auto=validate, so run this before deploying the new version:
+--   mysql -u <user> -p <database> < database/upgrade_from_1.0.0.sql
+-- Every statement is idempotent; running it again changes nothing.
+-- =============================================================================
+
+-- =============================================================================
+-- TABLE: crop_recommendation_stats (per-crop rollup of recommendations)
+-- Rows are backfilled by the stats reconciler at startup
+-- =============================================================================
+CREATE TABLE IF NOT EXISTS crop_recommendation_stats (
+    crop_id BIGINT PRIMARY KEY,
+    rec_count BIGINT NOT NULL,
+    confidence_sum DOUBLE NOT NULL,
+    confidence_sq_sum DOUBLE NOT NULL DEFAULT 0,
+    confidence_min DOUBLE,
+    confidence_max DOUBLE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_crop_stats_crop FOREIGN KEY (crop_id)
+        REFERENCES crops(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================================================
+-- TABLE: weather_rollup (hourly/daily aggregates of weather_data)
+-- Raw readings past retention are folded in and deleted by the retention job
+-- =============================================================================
+CREATE TABLE IF NOT EXISTS weather_rollup (
+    location VARCHAR(255) NOT NULL,
+    resolution VARCHAR(8) NOT NULL CHECK (resolution IN ('HOUR', 'DAY')),
+    bucket_start DATETIME NOT NULL,
+    sample_count BIGINT NOT NULL CHECK (sample_count > 0),
+    temperature_sum DOUBLE NOT NULL,
+    temperature_min DOUBLE NOT NULL,
+    temperature_max DOUBLE NOT NULL,
+    humidity_sum DOUBLE NOT NULL,
+    humidity_min DOUBLE NOT NULL,
+    humidity_max DOUBLE NOT NULL,
+    rainfall_sum DOUBLE NOT NULL,
+    rainfall_min DOUBLE NOT NULL,
+    rainfall_max DOUBLE NOT NULL,
+
+    PRIMARY KEY (location, resolution, bucket_start),
+    INDEX idx_weather_rollup_bucket (resolution, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================================================
+-- TABLE: location_aliases (normalized location text -> OpenWeather city)
+-- One row per distinct spelling OpenWeather resolves; rows are never pruned
+-- =============================================================================
+CREATE TABLE IF NOT EXISTS location_aliases (
+    alias VARCHAR(255) PRIMARY KEY,
+    city_id BIGINT NOT NULL,
+    location_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_location_alias_city (city_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================================================
+-- INDEXES: keyset pagination of soil and recommendation history
+-- Cursor pages seek on (user_id, date, id). Replaces a (user_id, date) index
+-- of the same name, or adds the index under its entity name if there is none.
+-- MySQL has no ADD/DROP INDEX IF [NOT] EXISTS, so each ALTER is chosen from
+-- information_schema and run as a prepared statement.
+-- =============================================================================
+SET @soil_index = (SELECT MAX(index_name) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'soil_data'
+      AND index_name = 'idx_soil_user_date');
+SET @soil_index_done = (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'soil_data'
+      AND index_name = 'idx_soil_user_date' AND column_name = 'id');
+SET @ddl = CASE
+    WHEN @soil_index_done > 0 THEN 'DO 0'
+    WHEN @soil_index IS NOT NULL THEN
+        'ALTER TABLE soil_data DROP INDEX idx_soil_user_date, ADD INDEX idx_soil_user_date (user_id, recorded_date, id)'
+    ELSE 'ALTER TABLE soil_data ADD INDEX idx_soil_user_date (user_id, recorded_date, id)'
+END;
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- schema_production.sql names it idx_rec_user_date; the entity and schema.sql, idx_recommendation_user_date
+SET @rec_index = (SELECT MAX(index_name) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'recommendations'
+      AND index_name IN ('idx_rec_user_date', 'idx_recommendation_user_date'));
+SET @rec_index_done = (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'recommendations'
+      AND index_name IN ('idx_rec_user_date', 'idx_recommendation_user_date') AND column_name = 'id');
+SET @ddl = CASE
+    WHEN @rec_index_done > 0 THEN 'DO 0'
+    WHEN @rec_index IS NOT NULL THEN
+        CONCAT('ALTER TABLE recommendations DROP INDEX ', @rec_index,
+               ', ADD INDEX ', @rec_index, ' (user_id, recommendation_date, id)')
+    ELSE 'ALTER TABLE recommendations ADD INDEX idx_recommendation_user_date (user_id, recommendation_date, id)'
+END;
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,103 @@
+package com.crop.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring cost of {@link RecommendationService#rank} per soil sample, uncached.
+ * Catalogs are synthetic but seeded, so every run scores the same crops and samples.
+ * Catalogs at or above {@code indexThreshold} crops go through the interval index, as in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RecommendationScoringBenchmark {
+
+    private static final long SEED = 20240601L;
+    private static final int SAMPLES = 1024;
+
+    @Param({"15", "1000", "100000", "1000000"})
+    private int crops;
+
+    @Param({"512"})
+    private int indexThreshold;
+
+    @Param({"10"})
+    private int topK;
+
+    private CropRangeSnapshot catalog;
+    private double[][] samples;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        catalog = CropRangeSnapshot.fromRows(1, syntheticCrops(random, crops), indexThreshold);
+        samples = new double[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = new double[] {
+                    random.nextDouble() * 140, random.nextDouble() * 145, random.nextDouble() * 205,
+                    4.5 + random.nextDouble() * 4, random.nextDouble() * 300};
+        }
+    }
+
+    @Benchmark
+    public RankedCrops top1() {
+        double[] s = nextSample();
+        return RecommendationService.rank(catalog, s[0], s[1], s[2], s[3], s[4], 1);
+    }
+
+    @Benchmark
+    public RankedCrops topK() {
+        double[] s = nextSample();
+        return RecommendationService.rank(catalog, s[0], s[1], s[2], s[3], s[4], topK);
+    }
+
+    private double[] nextSample() {
+        double[] s = samples[next];
+        next = (next + 1) & (SAMPLES - 1);
+        return s;
+    }
+
+    /** Rows shaped like {@code CropRepository#findAllIdealRanges()}, with ranges similar to the seed crops. */
+    static List<Object[]> syntheticCrops(Random random, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object[] row = new Object[12];
+            row[0] = (long) (i + 1);
+            row[1] = "Crop " + (i + 1);
+            range(row, 2, random, 0, 140, 20, 60);
+            range(row, 4, random, 5, 145, 10, 40);
+            range(row, 6, random, 5, 205, 10, 50);
+            range(row, 8, random, 4.5, 8.5, 0.5, 2.0);
+            range(row, 10, random, 0, 300, 30, 120);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void range(Object[] row, int at, Random random, double lo, double hi, double minWidth, double maxWidth) {
+        double width = minWidth + random.nextDouble() * (maxWidth - minWidth);
+        double min = lo + random.nextDouble() * (hi - lo - width);
+        row[at] = min;
+        row[at + 1] = min + width;
+    }
+}
@@ -0,0 +1,69 @@
+package com.crop.service;
+
+import com.crop.dto.OpenWeatherPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding an OpenWeather payload into {@link OpenWeatherPayload} and reading the fields
+ * {@link WeatherService} stores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherParsingBenchmark {
+
+    private static final String PAYLOAD = """
+            {"coord":{"lon":77.2167,"lat":28.6667},
+             "weather":[{"id":501,"main":"Rain","description":"moderate rain","icon":"10d"}],
+             "base":"stations",
+             "main":{"temp":29.4,"feels_like":34.1,"temp_min":29.4,"temp_max":29.4,"pressure":1002,"humidity":79},
+             "visibility":4000,"wind":{"speed":3.6,"deg":100},
+             "rain":{"1h":2.87},"clouds":{"all":75},"dt":1719999999,
+             "sys":{"type":1,"id":9165,"country":"IN","sunrise":1719963360,"sunset":1720013520},
+             "timezone":19800,"id":1273294,"name":"Delhi","cod":200}
+            """;
+
+    private ObjectMapper objectMapper;
+    private OpenWeatherPayload payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        payload = decode();
+    }
+
+    @Benchmark
+    public double temperature() {
+        return payload.temperature();
+    }
+
+    @Benchmark
+    public double rainfall() {
+        return payload.rainfall();
+    }
+
+    @Benchmark
+    public double decodeAndExtract() throws Exception {
+        OpenWeatherPayload decoded = decode();
+        return decoded.temperature() + decoded.humidity() + decoded.rainfall();
+    }
+
+    private OpenWeatherPayload decode() throws Exception {
+        return objectMapper.readValue(PAYLOAD, OpenWeatherPayload.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.crop.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one scenario's measured requests. Latency runs from the request's
+ * scheduled send time, not the actual one, so a stalled server shows up as queueing delay
+ * instead of silently lowering the arrival rate (no coordinated omission).
+ */
+final class LatencyRecorder {
+
+    private long[] micros = new long[1024];
+    private int count;
+    private long errors;
+    private long dropped;
+    private final Map<String, Long> statuses = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, String status, boolean ok) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = latencyNanos / 1_000;
+        statuses.merge(status, 1L, Long::sum);
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    /** A request that was never sent because too many were already in flight. */
+    synchronized void drop() {
+        dropped++;
+    }
+
+    synchronized Summary summarize(String name, double targetRate, double seconds) {
+        long[] sorted = Arrays.copyOf(micros, count);
+        Arrays.sort(sorted);
+        return new Summary(name, targetRate, count / seconds, count, errors, dropped,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1000.0,
+                new TreeMap<>(statuses));
+    }
+
+    /** Nearest-rank percentile in milliseconds. */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1000.0;
+    }
+
+    /** Latencies in milliseconds; {@code throughput} counts completed requests per second. */
+    record Summary(String scenario, double targetRate, double throughput, long requests, long errors,
+                   long dropped, double p50, double p90, double p99, double p999, double max,
+                   Map<String, Long> statuses) {
+    }
+}
@@ -0,0 +1,388 @@
+package com.crop.loadtest;
+
+import com.crop.loadtest.LatencyRecorder.Summary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Open-model load test: each scenario sends requests at a fixed arrival rate for a warm-up and
+ * a measured period, whatever the response times, and reports throughput and latency percentiles.
+ *
+ * <p>By default the packaged jar is started with the {@code demo} profile (H2) in a fresh working
+ * directory, pointed at an in-process {@link OpenWeatherStub}; {@code --target=http://host:port}
+ * drives an app that is already running instead. Load users are registered (or logged in) first.
+ * Request content comes from seeded generators, so every run sends the same sequence.
+ *
+ * <p>Run: {@code mvn -Ploadtest verify -DskipTests}, with {@code name=value} options in
+ * {@code -Dloadtest.args="..."}; see {@code docs/load-testing.md} for the options.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String PASSWORD = "loadtest123";
+    /** Requests per second per scenario unless overridden with {@code --rate.<name>}. */
+    private static final Map<String, Double> DEFAULT_RATES = Map.of(
+            "login", 2.0, "soil", 20.0, "recommend", 40.0, "multiple", 10.0, "dashboard", 10.0);
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long seed;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.requestTimeout = Duration.ofSeconds(longOption("timeout-seconds", 30));
+        this.maxInFlight = (int) longOption("max-in-flight", 2000);
+        this.seed = longOption("seed", 42);
+        ExecutorService responses = Executors.newFixedThreadPool(8, daemon("loadtest-client"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(responses)
+                .build();
+    }
+
+    /** One request stream: {@code requests} builds the i-th request. */
+    private record Scenario(String name, double rate, Function<Long, HttpRequest> requests, LatencyRecorder recorder) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            // "--name=value" or "name=value" (the latter is easier to pass through Maven).
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Options are name=value, got: " + arg);
+            }
+            options.put(option.substring(0, eq), option.substring(eq + 1));
+        }
+        new LoadTest(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (OpenWeatherStub stub = new OpenWeatherStub((int) longOption("stub-port", 0),
+                longOption("stub-latency-ms", 80), longOption("stub-jitter-ms", 40),
+                doubleOption("stub-error-rate", 0.02), seed)) {
+            String target = options.get("target");
+            Process app = null;
+            if (target == null) {
+                int port = (int) longOption("port", 18081);
+                int managementPort = (int) longOption("management-port", port + 1);
+                target = "http://127.0.0.1:" + port;
+                app = startApp(port, managementPort, stub.baseUrl());
+                awaitHealthy("http://127.0.0.1:" + managementPort, app);
+            }
+            try {
+                List<String> tokens = loadUsers(target, (int) longOption("users", 20));
+                List<Scenario> scenarios = scenarios(target, tokens);
+                double seconds = longOption("duration", 60);
+                drive(scenarios, longOption("warmup", 15), (long) seconds);
+                report(scenarios, seconds, stub);
+            } finally {
+                if (app != null) {
+                    app.destroy();
+                    if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                        app.destroyForcibly();
+                    }
+                }
+            }
+        }
+    }
+
+    // ---- App under test ------------------------------------------------------------------------
+
+    private Process startApp(int port, int managementPort, String weatherUrl) throws IOException {
+        Path jar = Path.of(option("jar", "target/crop-recommendation-system-1.0.0.jar"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("App jar not found: " + jar + " (run mvn package, or pass --jar / --target)");
+        }
+        Path workDir = Path.of(option("work-dir", "target/loadtest"));
+        deleteRecursively(workDir.resolve("data"));
+        Files.createDirectories(workDir);
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-jar", jar.toAbsolutePath().toString(),
+                "--spring.profiles.active=" + option("profile", "demo"),
+                "--server.port=" + port,
+                "--management.server.port=" + managementPort,
+                "--openweather.api.base-url=" + weatherUrl,
+                "--openweather.api.key=loadtest",
+                "--spring.jpa.show-sql=false"));
+        String appArgs = options.get("app-args");
+        if (appArgs != null && !appArgs.isBlank()) {
+            command.addAll(List.of(appArgs.trim().split("\\s+")));
+        }
+        System.out.printf("Starting app on port %d (log: %s)%n", port, workDir.resolve("app.log"));
+        return new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+    }
+
+    /** Wait for {@code /actuator/health} on the started app's management port. */
+    private void awaitHealthy(String management, Process app) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(management + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(longOption("startup-seconds", 180));
+        while (System.nanoTime() < deadline) {
+            if (app != null && !app.isAlive()) {
+                throw new IllegalStateException("App exited during startup with code " + app.exitValue());
+            }
+            try {
+                HttpResponse<String> response = client.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("UP")) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("App not healthy at " + management);
+    }
+
+    /** Register {@code count} farmers, or log them in if they exist from an earlier run; returns their tokens. */
+    private List<String> loadUsers(String target, int count) throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = String.format(Locale.ROOT, "loadtest-%03d@crop.test", i);
+            HttpResponse<String> response = client.send(post(target + "/api/auth/register", null,
+                    String.format("{\"name\":\"Load Test %d\",\"email\":\"%s\",\"password\":\"%s\"}", i, email, PASSWORD)),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                response = client.send(post(target + "/api/auth/login", null, login(email)),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not register or log in " + email + ": " + response.body());
+            }
+            tokens.add(JSON.readTree(response.body()).path("token").asText());
+        }
+        return tokens;
+    }
+
+    // ---- Workload ------------------------------------------------------------------------------
+
+    private List<Scenario> scenarios(String target, List<String> tokens) {
+        List<String> locations = new ArrayList<>();
+        for (int i = 0; i < longOption("locations", 50); i++) {
+            locations.add(String.format(Locale.ROOT, "Loadtest City %03d", i));
+        }
+        int users = tokens.size();
+        List<Scenario> scenarios = new ArrayList<>();
+        addScenario(scenarios, "login", i -> post(target + "/api/auth/login", null,
+                login(String.format(Locale.ROOT, "loadtest-%03d@crop.test", i % users))));
+        SplittableRandom soil = new SplittableRandom(seed + 1);
+        addScenario(scenarios, "soil", i -> post(target + "/api/soil", tokens.get((int) (i % users)),
+                soilJson(soil)));
+        SplittableRandom recommend = new SplittableRandom(seed + 2);
+        addScenario(scenarios, "recommend", i -> post(target + "/api/recommendation", tokens.get((int) (i % users)),
+                recommendationJson(recommend, locations)));
+        SplittableRandom multiple = new SplittableRandom(seed + 3);
+        addScenario(scenarios, "multiple", i -> post(target + "/api/recommendation/multiple?limit=5",
+                tokens.get((int) (i % users)), recommendationJson(multiple, locations)));
+        addScenario(scenarios, "dashboard", i -> HttpRequest.newBuilder(URI.create(target + "/api/dashboard/farmer"))
+                .header("Authorization", "Bearer " + tokens.get((int) (i % users)))
+                .timeout(requestTimeout)
+                .GET()
+                .build());
+        return scenarios;
+    }
+
+    /** Rate from {@code --rate.<name>}; a rate of 0 leaves the scenario out. */
+    private void addScenario(List<Scenario> scenarios, String name, Function<Long, HttpRequest> requests) {
+        double rate = doubleOption("rate." + name, DEFAULT_RATES.get(name));
+        if (rate > 0) {
+            scenarios.add(new Scenario(name, rate, requests, new LatencyRecorder()));
+        }
+    }
+
+    private static String login(String email) {
+        return String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, PASSWORD);
+    }
+
+    private static String soilJson(SplittableRandom random) {
+        return String.format(Locale.ROOT,
+                "{\"nitrogen\":%.1f,\"phosphorus\":%.1f,\"potassium\":%.1f,\"ph\":%.1f,\"moisture\":%.1f}",
+                random.nextDouble(0, 140), random.nextDouble(5, 145), random.nextDouble(5, 205),
+                random.nextDouble(4, 9), random.nextDouble(10, 90));
+    }
+
+    private static String recommendationJson(SplittableRandom random, List<String> locations) {
+        String soil = soilJson(random);
+        String location = locations.isEmpty() ? null : locations.get(random.nextInt(locations.size()));
+        return location == null
+                ? "{\"soilData\":" + soil + "}"
+                : "{\"soilData\":" + soil + ",\"location\":\"" + location + "\"}";
+    }
+
+    private HttpRequest post(String url, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    // ---- Driver --------------------------------------------------------------------------------
+
+    /** One dispatcher thread per scenario; all share the same clock origin. */
+    private void drive(List<Scenario> scenarios, long warmupSeconds, long durationSeconds) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Driving %d scenarios: %ds warm-up, %ds measured%n",
+                scenarios.size(), warmupSeconds, durationSeconds);
+        List<Thread> dispatchers = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            Thread t = new Thread(() -> dispatch(scenario, start, measureFrom, end), "loadtest-" + scenario.name());
+            t.start();
+            dispatchers.add(t);
+        }
+        for (Thread t : dispatchers) {
+            t.join();
+        }
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void dispatch(Scenario scenario, long start, long measureFrom, long end) {
+        double periodNanos = 1e9 / scenario.rate();
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * periodNanos);
+            if (scheduled >= end) {
+                return;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            HttpRequest request = scenario.requests().apply(i);
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    scenario.recorder().drop();
+                }
+                continue;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        if (error == null) {
+                            int status = response.statusCode();
+                            scenario.recorder().record(latency, String.valueOf(status), status < 400);
+                        } else {
+                            scenario.recorder().record(latency, failure(error), false);
+                        }
+                    });
+        }
+    }
+
+    private static String failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? "TIMEOUT" : "IO_ERROR";
+    }
+
+    // ---- Report --------------------------------------------------------------------------------
+
+    private void report(List<Scenario> scenarios, double seconds, OpenWeatherStub stub) throws IOException {
+        List<Summary> summaries = scenarios.stream()
+                .map(s -> s.recorder().summarize(s.name(), s.rate(), seconds))
+                .toList();
+        System.out.println();
+        System.out.printf("%-10s %8s %8s %8s %7s %7s %9s %9s %9s %9s %9s%n",
+                "scenario", "rate/s", "done/s", "requests", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Summary s : summaries) {
+            System.out.printf(Locale.ROOT, "%-10s %8.1f %8.1f %8d %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    s.scenario(), s.targetRate(), s.throughput(), s.requests(), s.errors(), s.dropped(),
+                    s.p50(), s.p90(), s.p99(), s.p999(), s.max());
+        }
+        for (Summary s : summaries) {
+            System.out.printf("%-10s statuses %s%n", s.scenario(), s.statuses());
+        }
+        System.out.printf("OpenWeather stub: %d calls, %d injected errors%n", stub.calls(), stub.errors());
+
+        Path reportFile = Path.of(option("report", "target/loadtest-result.json"));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("scenarios", summaries);
+        report.put("weatherStub", Map.of("calls", stub.calls(), "errors", stub.errors()));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        JSON.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        System.out.println("Report: " + reportFile);
+    }
+
+    // ---- Helpers -------------------------------------------------------------------------------
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private long longOption(String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
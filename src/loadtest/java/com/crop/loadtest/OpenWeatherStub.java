@@ -0,0 +1,186 @@
+package com.crop.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for {@code api.openweathermap.org/data/2.5/weather}. Answers {@code q=} and
+ * {@code id=} lookups with the fields the app reads ({@code id}, {@code name}, {@code sys.country},
+ * {@code main}, {@code rain}) in OpenWeather's response shape; any city name resolves, and a name
+ * keeps its id for the life of the stub. Readings are derived from the city id, so runs repeat.
+ *
+ * <p>Every response is delayed by {@code latencyMs} plus a uniform jitter below {@code jitterMs},
+ * on a timer rather than a sleeping thread, and a {@code errorRate} fraction answer 500. Requests
+ * without {@code appid} get 401, as upstream. Standalone:
+ * {@code java -cp <test classpath> com.crop.loadtest.OpenWeatherStub 18080 80 40 0.02}
+ * (port, latency ms, jitter ms, error rate).
+ */
+public final class OpenWeatherStub implements AutoCloseable {
+
+    public static final String PATH = "/data/2.5/weather";
+    private static final long FIRST_CITY_ID = 9_000_001L;
+
+    private final HttpServer server;
+    private final ScheduledExecutorService delays;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final SplittableRandom random;
+
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(FIRST_CITY_ID);
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public OpenWeatherStub(int port, long latencyMs, long jitterMs, double errorRate, long seed) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.random = new SplittableRandom(seed);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.delays = Executors.newScheduledThreadPool(4, r -> {
+            Thread t = new Thread(r, "openweather-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(delays);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 80;
+        long jitter = args.length > 2 ? Long.parseLong(args[2]) : 40;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        OpenWeatherStub stub = new OpenWeatherStub(port, latency, jitter, errorRate, 42);
+        System.out.println("OpenWeather stub: " + stub.baseUrl());
+    }
+
+    /** Value for {@code openweather.api.base-url}. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        calls.incrementAndGet();
+        long delay;
+        boolean fail;
+        synchronized (random) {
+            delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs) : 0);
+            fail = random.nextDouble() < errorRate;
+        }
+        delays.schedule(() -> respond(exchange, fail), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void respond(HttpExchange exchange, boolean fail) {
+        try (exchange) {
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            if (!query.containsKey("appid")) {
+                send(exchange, 401, "{\"cod\":401,\"message\":\"Invalid API key.\"}");
+            } else if (fail) {
+                errors.incrementAndGet();
+                send(exchange, 500, "{\"cod\":\"500\",\"message\":\"Internal server error\"}");
+            } else {
+                Long id = cityId(query);
+                if (id == null) {
+                    send(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}");
+                } else {
+                    send(exchange, 200, weather(id, namesById.get(id)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Client went away (timeout); nothing to answer.
+        }
+    }
+
+    private Long cityId(Map<String, String> query) {
+        String id = query.get("id");
+        if (id != null) {
+            try {
+                Long cityId = Long.valueOf(id);
+                return namesById.containsKey(cityId) ? cityId : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        String q = query.get("q");
+        if (q == null || q.isBlank()) {
+            return null;
+        }
+        String name = q.split(",")[0].trim();
+        return idsByName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> {
+            long cityId = nextId.getAndIncrement();
+            namesById.put(cityId, name);
+            return cityId;
+        });
+    }
+
+    private static String weather(long id, String name) {
+        double temp = 18 + id % 17;
+        int humidity = 40 + (int) (id % 50);
+        double rain = (id % 7) * 0.5;
+        return "{\"coord\":{\"lon\":73.86,\"lat\":18.52},"
+                + "\"weather\":[{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}],"
+                + "\"base\":\"stations\","
+                + "\"main\":{\"temp\":" + temp + ",\"feels_like\":" + temp + ",\"pressure\":1008,\"humidity\":" + humidity + "},"
+                + "\"visibility\":10000,\"wind\":{\"speed\":3.6,\"deg\":250},"
+                + "\"rain\":{\"1h\":" + rain + "},\"clouds\":{\"all\":75},\"dt\":1700000000,"
+                + "\"sys\":{\"country\":\"IN\",\"sunrise\":1699990000,\"sunset\":1700030000},"
+                + "\"timezone\":19800,\"id\":" + id + ",\"name\":\"" + name.replace("\"", "") + "\",\"cod\":200}";
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.crop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounded scheduler for blocking JPA/JDBC work inside reactive pipelines.
+ * Keep {@code persistence.scheduler.threads} below the Hikari pool size so reactive
+ * requests cannot take every connection.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Value("${persistence.scheduler.threads:8}")
+    private int threads;
+
+    @Value("${persistence.scheduler.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenceScheduler() {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "persistence");
+    }
+}
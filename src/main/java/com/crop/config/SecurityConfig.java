@@ -1,9 +1,12 @@
 package com.crop.config;
 
 import com.crop.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -39,15 +42,37 @@ public class SecurityConfig {
             "/js/**",
             "/images/**",
             "/error",
-            "/favicon.ico"
+            "/favicon.ico",
+            "/actuator/health",
+            "/actuator/health/**"
     };
 
+    /**
+     * Actuator's own port (management.server.port, bound to localhost by default) needs no token:
+     * only local scrapers and health checks can reach it. Not applied when actuator shares the app port.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http,
+                                                     @Value("${management.server.port:-1}") int managementPort,
+                                                     @Value("${server.port:8080}") int serverPort) throws Exception {
+        boolean separatePort = managementPort > 0 && managementPort != serverPort;
+        http
+                .securityMatcher(request -> separatePort && request.getLocalPort() == managementPort)
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Mono/async results are written on a second dispatch; the request was authorized on the first
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(PUBLIC_URLS).permitAll()
                         .requestMatchers("/dashboard/**", "/api/**").authenticated()
                         .anyRequest().authenticated()
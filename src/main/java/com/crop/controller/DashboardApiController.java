@@ -1,31 +1,43 @@
 package com.crop.controller;
 
 import com.crop.entity.enums.Role;
-import com.crop.repository.UserRepository;
+import com.crop.exception.BadRequestException;
+import com.crop.security.AppUserPrincipal;
 import com.crop.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
  * REST API for dashboard chart data (consumed by frontend with Chart.js).
+ * Farmer and officer charts accept an optional {@code from}/{@code to} range (ISO date-time) and
+ * {@code points}; the range is then downsampled server-side instead of returning the latest 20 rows.
+ * {@code to} and {@code points} only apply to a range, so either one without {@code from} is a 400.
  */
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
 public class DashboardApiController {
 
+    private static final int DEFAULT_CHART_POINTS = 20;
+
     private final DashboardService dashboardService;
-    private final UserRepository userRepository;
 
     @GetMapping("/farmer")
-    public ResponseEntity<Map<String, Object>> farmerData(@AuthenticationPrincipal UserDetails userDetails) {
-        var user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
-        return ResponseEntity.ok(dashboardService.getFarmerDashboard(user.getId()));
+    public ResponseEntity<Map<String, Object>> farmerData(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer points) {
+        if (unranged(from, to, points)) {
+            return ResponseEntity.ok(dashboardService.getFarmerDashboard(principal.getId()));
+        }
+        return ResponseEntity.ok(dashboardService.getFarmerDashboard(principal.getId(), from, to, chartPoints(points)));
     }
 
     @GetMapping("/admin")
@@ -35,7 +47,27 @@ public class DashboardApiController {
 
     @GetMapping("/officer")
     public ResponseEntity<Map<String, Object>> officerData(
-            @RequestParam(required = false) String location) {
-        return ResponseEntity.ok(dashboardService.getOfficerDashboard(location));
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer points) {
+        if (unranged(from, to, points)) {
+            return ResponseEntity.ok(dashboardService.getOfficerDashboard(location));
+        }
+        return ResponseEntity.ok(dashboardService.getOfficerDashboard(location, from, to, chartPoints(points)));
+    }
+
+    private static boolean unranged(LocalDateTime from, LocalDateTime to, Integer points) {
+        if (from != null) {
+            return false;
+        }
+        if (to != null || points != null) {
+            throw new BadRequestException("'to' and 'points' require 'from'");
+        }
+        return true;
+    }
+
+    private static int chartPoints(Integer points) {
+        return points != null ? points : DEFAULT_CHART_POINTS;
     }
 }
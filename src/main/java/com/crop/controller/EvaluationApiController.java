@@ -2,6 +2,8 @@ package com.crop.controller;
 
 import com.crop.service.DashboardService;
 import com.crop.repository.CropRepository;
+import com.crop.repository.CropStatsRepository;
+import com.crop.repository.CropStatsRepository.CropStats;
 import com.crop.repository.RecommendationRepository;
 import com.crop.repository.SoilDataRepository;
 import com.crop.repository.UserRepository;
@@ -28,6 +30,7 @@ public class EvaluationApiController {
     private final SoilDataRepository soilDataRepository;
     private final RecommendationRepository recommendationRepository;
     private final DashboardService dashboardService;
+    private final CropStatsRepository cropStatsRepository;
 
     /**
      * GET /api/evaluation/dbms-stats
@@ -88,14 +91,17 @@ public class EvaluationApiController {
     public ResponseEntity<Map<String, Object>> getStatsSummary() {
         Map<String, Object> stats = new HashMap<>();
         
-        // Get top crops for statistics
-        var topCrops = recommendationRepository.countRecommendationsByCropName(org.springframework.data.domain.PageRequest.of(0, 5));
+        // Get top crops for statistics (per-crop rollup, one row per crop)
+        var topCrops = cropStatsRepository.findTop(5);
         
-        stats.put("topCropNames", topCrops.stream().map(o -> (String) o[0]).toList());
-        stats.put("topCropCounts", topCrops.stream().map(o -> ((Number) o[1]).longValue()).toList());
+        stats.put("topCropNames", topCrops.stream().map(CropStats::cropName).toList());
+        stats.put("topCropCounts", topCrops.stream().map(CropStats::count).toList());
         
-        // Average confidence (mock for demo)
-        stats.put("averageConfidence", 85.5);
+        // Confidence over all recommendations, summed from the rollup
+        var confidence = cropStatsRepository.confidenceSummary();
+        stats.put("averageConfidence", Math.round(confidence.mean() * 10.0) / 10.0);
+        stats.put("confidenceStdDev", Math.round(confidence.standardDeviation() * 10.0) / 10.0);
+        stats.put("totalRecommendations", confidence.count());
         
         return ResponseEntity.ok(stats);
     }
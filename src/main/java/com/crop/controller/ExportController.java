@@ -0,0 +1,60 @@
+package com.crop.controller;
+
+import com.crop.security.AppUserPrincipal;
+import com.crop.service.ExportService;
+import com.crop.service.StreamFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Streaming CSV/NDJSON exports. Recommendations and soil data are the caller's own; weather is shared.
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/recommendations")
+    public void recommendations(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        StreamFormat outputFormat = start(response, format, "recommendations");
+        exportService.exportRecommendations(principal.getId(), response.getOutputStream(), outputFormat);
+    }
+
+    @GetMapping("/soil")
+    public void soil(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        StreamFormat outputFormat = start(response, format, "soil-data");
+        exportService.exportSoil(principal.getId(), response.getOutputStream(), outputFormat);
+    }
+
+    @GetMapping("/weather")
+    public void weather(
+            @RequestParam(required = false) String location,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        StreamFormat outputFormat = start(response, format, "weather-data");
+        exportService.exportWeather(location, response.getOutputStream(), outputFormat);
+    }
+
+    private static StreamFormat start(HttpServletResponse response, String format, String name) {
+        StreamFormat outputFormat = StreamFormat.parse(format);
+        response.setContentType(outputFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + outputFormat.name().toLowerCase(Locale.ROOT) + "\"");
+        return outputFormat;
+    }
+}
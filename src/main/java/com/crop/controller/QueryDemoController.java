@@ -15,6 +15,7 @@ public class QueryDemoController {
     private final UserRepository userRepository;
     private final CropRepository cropRepository;
     private final RecommendationRepository recommendationRepository;
+    private final CropStatsRepository cropStatsRepository;
 
     /**
      * Query 1: SELECT with JOIN
@@ -38,38 +39,36 @@ public class QueryDemoController {
     }
 
     /**
-     * Query 2: GROUP BY
+     * Query 2: GROUP BY (served from the per-crop rollup table)
      */
     @GetMapping("/query-groupby")
     public ResponseEntity<List<Map<String, Object>>> getGroupByQuery() {
-        var crops = recommendationRepository.countRecommendationsByCropName(org.springframework.data.domain.PageRequest.of(0, 10));
+        var crops = cropStatsRepository.findTop(10);
         List<Map<String, Object>> result = new ArrayList<>();
         for (var row : crops) {
             Map<String, Object> map = new HashMap<>();
-            map.put("cropName", (String) row[0]);
-            map.put("total", ((Number) row[1]).longValue());
-            map.put("avgConfidence", Math.round((Double) row[2] * 10.0) / 10.0);
+            map.put("cropName", row.cropName());
+            map.put("total", row.count());
+            map.put("avgConfidence", Math.round(row.averageConfidence() * 10.0) / 10.0);
             result.add(map);
         }
         return ResponseEntity.ok(result);
     }
 
     /**
-     * Query 3: Nested Query
+     * Query 3: Nested Query (crops whose average beats the overall average, both from the rollup)
      */
     @GetMapping("/query-nested")
     public ResponseEntity<List<Map<String, Object>>> getNestedQuery() {
-        var crops = recommendationRepository.countRecommendationsByCropName(org.springframework.data.domain.PageRequest.of(0, 10));
-        double avg = recommendationRepository.findAll().stream()
-            .mapToDouble(r -> r.getConfidenceScore())
-            .average().orElse(0);
+        var crops = cropStatsRepository.findTop(10);
+        double avg = cropStatsRepository.confidenceSummary().mean();
         
         List<Map<String, Object>> result = new ArrayList<>();
         for (var row : crops) {
-            double cropAvg = (Double) row[2];
+            double cropAvg = row.averageConfidence();
             if (cropAvg >= avg) {
                 Map<String, Object> map = new HashMap<>();
-                map.put("cropName", (String) row[0]);
+                map.put("cropName", row.cropName());
                 map.put("avgConfidence", Math.round(cropAvg * 10.0) / 10.0);
                 result.add(map);
             }
@@ -1,17 +1,26 @@
 package com.crop.controller;
 
+import com.crop.dto.BatchRecommendationRequest;
+import com.crop.dto.BatchRecommendationResponse;
+import com.crop.dto.CursorPage;
 import com.crop.dto.MultipleRecommendationResponse;
+import com.crop.dto.RecommendationHistoryItem;
 import com.crop.dto.RecommendationRequest;
 import com.crop.dto.RecommendationResponse;
-import com.crop.entity.User;
-import com.crop.repository.UserRepository;
+import com.crop.security.AppUserPrincipal;
+import com.crop.service.BulkScoringService;
 import com.crop.service.RecommendationService;
+import com.crop.service.StreamFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/recommendation")
@@ -19,26 +28,66 @@ import org.springframework.web.bind.annotation.*;
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
-    private final UserRepository userRepository;
+    private final BulkScoringService bulkScoringService;
 
     @PostMapping
     public ResponseEntity<RecommendationResponse> getRecommendation(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AppUserPrincipal principal,
             @Valid @RequestBody RecommendationRequest request) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow();
-        RecommendationResponse response = recommendationService.getRecommendation(user.getId(), user, request);
+        RecommendationResponse response = recommendationService.getRecommendation(principal.getId(), request);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Same as {@code POST /api/recommendation}, but the request thread is released while weather is fetched.
+     */
+    @PostMapping("/async")
+    public Mono<RecommendationResponse> getRecommendationAsync(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @Valid @RequestBody RecommendationRequest request) {
+        return recommendationService.getRecommendationAsync(principal.getId(), request);
+    }
+
     @PostMapping("/multiple")
     public ResponseEntity<MultipleRecommendationResponse> getMultipleRecommendations(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AppUserPrincipal principal,
             @Valid @RequestBody RecommendationRequest request,
             @RequestParam(defaultValue = "5") int limit) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow();
-        MultipleRecommendationResponse response = recommendationService.getMultipleRecommendations(user.getId(), user, request, limit);
+        MultipleRecommendationResponse response = recommendationService.getMultipleRecommendations(principal.getId(), request, limit);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Stored recommendations, newest first, walked with the opaque {@code nextCursor} of each page.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<CursorPage<RecommendationHistoryItem>> getHistory(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recommendationService.getHistory(principal.getId(), cursor, limit));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchRecommendationResponse> getBatchRecommendations(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @Valid @RequestBody BatchRecommendationRequest request) {
+        BatchRecommendationResponse response = recommendationService.getBatchRecommendations(principal.getId(), request.getSamples());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Score a soil-sample CSV (raw request body) and stream one result per row as NDJSON or CSV.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "text/plain"})
+    public void scoreCsv(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String location,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        StreamFormat outputFormat = StreamFormat.parse(format);
+        response.setContentType(outputFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        bulkScoringService.score(request.getInputStream(), response.getOutputStream(), outputFormat, location);
+    }
 }
@@ -1,17 +1,23 @@
 package com.crop.controller;
 
+import com.crop.dto.BulkSoilResponse;
+import com.crop.dto.CursorPage;
 import com.crop.dto.SoilDataRequest;
 import com.crop.entity.SoilData;
 import com.crop.entity.User;
 import com.crop.repository.UserRepository;
+import com.crop.security.AppUserPrincipal;
 import com.crop.service.SoilDataService;
+import com.crop.service.SoilIngestService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,22 +26,44 @@ import java.util.List;
 public class SoilDataController {
 
     private final SoilDataService soilDataService;
+    private final SoilIngestService soilIngestService;
     private final UserRepository userRepository;
 
     @PostMapping
     public ResponseEntity<SoilData> create(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AppUserPrincipal principal,
             @Valid @RequestBody SoilDataRequest request) {
-        User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
-        SoilData created = soilDataService.create(user.getId(), user, request);
+        User user = userRepository.getReferenceById(principal.getId());
+        SoilData created = soilDataService.create(principal.getId(), user, request);
         return ResponseEntity.ok(created);
     }
 
+    /**
+     * Bulk upload from sensor gateways: a JSON array of readings (raw request body, streamed).
+     * Valid readings are stored in JDBC batches; invalid ones are reported by array index.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkSoilResponse> bulk(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(soilIngestService.ingest(principal.getId(), request.getInputStream()));
+    }
+
     @GetMapping
     public ResponseEntity<List<SoilData>> list(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(soilDataService.findByUserId(principal.getId(), limit));
+    }
+
+    /**
+     * Full soil history, newest first, walked with the opaque {@code nextCursor} of each page.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<CursorPage<SoilData>> history(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int limit) {
-        User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
-        return ResponseEntity.ok(soilDataService.findByUserId(user.getId(), limit));
+        return ResponseEntity.ok(soilDataService.getHistory(principal.getId(), cursor, limit));
     }
 }
@@ -1,20 +1,25 @@
 package com.crop.controller;
 
 import com.crop.dto.WeatherResponse;
-import com.crop.service.WeatherService;
+import com.crop.exception.BadRequestException;
+import com.crop.service.WeatherCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/weather")
 @RequiredArgsConstructor
 public class WeatherController {
 
-    private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
 
+    /** Served from the weather cache (at most {@code weather.cache.ttl-seconds} old); a miss fetches and stores. */
     @GetMapping("/current")
-    public ResponseEntity<WeatherResponse> getCurrentWeather(@RequestParam String location) {
-        return ResponseEntity.ok(weatherService.fetchAndStoreWeather(location));
+    public Mono<WeatherResponse> getCurrentWeather(@RequestParam String location) {
+        if (location.isBlank()) {
+            return Mono.error(new BadRequestException("Location is required"));
+        }
+        return weatherCache.getAsync(location);
     }
 }
@@ -0,0 +1,27 @@
+package com.crop.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Many soil samples scored in one call, e.g. a cooperative's lab results.
+ * Each sample may carry its own location; weather is resolved once per distinct location.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRecommendationRequest {
+
+    @Valid
+    @NotEmpty
+    @Size(max = 1000, message = "At most 1000 samples per batch")
+    private List<RecommendationRequest> samples;
+}
@@ -0,0 +1,20 @@
+package com.crop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRecommendationResponse {
+
+    /** One result per sample, in request order. */
+    private List<RecommendationResponse> results;
+    private Integer totalCount;
+    private String message;
+}
@@ -0,0 +1,32 @@
+package com.crop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk soil upload: totals plus the first 1000 rejected readings (by array index);
+ * beyond that, {@code rejected} alone counts them. Every other reading was stored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSoilResponse {
+
+    private long received;
+    private long accepted;
+    private long rejected;
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long index;
+        private List<String> messages;
+    }
+}
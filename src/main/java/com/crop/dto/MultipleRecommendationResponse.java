@@ -16,6 +16,8 @@ public class MultipleRecommendationResponse {
     private List<CropRecommendation> recommendations;
     private Integer totalCount;
     private String message;
+    private Boolean weatherStale;
+    private String weatherRecordedAt;
 
     @Data
     @Builder
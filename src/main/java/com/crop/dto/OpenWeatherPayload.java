@@ -0,0 +1,47 @@
+package com.crop.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The parts of an OpenWeather "current weather" response we use. Unknown fields are ignored.
+ * Rainfall is {@code rain.1h}, else {@code rain.3h}, in mm; missing values read as 0.
+ * {@code id}, {@code name} and {@code sys.country} identify the resolved city.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OpenWeatherPayload(Long id, String name, Sys sys, Main main, Rain rain) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Sys(String country) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Main(Double temp, Double humidity) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Rain(@JsonProperty("1h") Double oneHour, @JsonProperty("3h") Double threeHours) {
+    }
+
+    public String country() {
+        return sys == null ? null : sys.country();
+    }
+
+    public double temperature() {
+        return main == null || main.temp() == null ? 0.0 : main.temp();
+    }
+
+    public double humidity() {
+        return main == null || main.humidity() == null ? 0.0 : main.humidity();
+    }
+
+    public double rainfall() {
+        if (rain == null) {
+            return 0.0;
+        }
+        if (rain.oneHour() != null) {
+            return rain.oneHour();
+        }
+        return rain.threeHours() == null ? 0.0 : rain.threeHours();
+    }
+}
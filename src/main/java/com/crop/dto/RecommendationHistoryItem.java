@@ -0,0 +1,20 @@
+package com.crop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationHistoryItem {
+
+    private Long id;
+    private String cropName;
+    private Double confidenceScore;
+    private LocalDateTime recommendationDate;
+}
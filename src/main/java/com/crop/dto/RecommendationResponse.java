@@ -15,4 +15,6 @@ public class RecommendationResponse {
     private String cropName;
     private Double confidenceScore;
     private String message;
+    private Boolean weatherStale;
+    private String weatherRecordedAt;
 }
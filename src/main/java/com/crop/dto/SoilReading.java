@@ -0,0 +1,49 @@
+package com.crop.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One sensor reading in a bulk soil upload. Ranges match the soil_data CHECK constraints, so a
+ * reading that passes validation cannot fail the batch insert. {@code recordedDate} defaults to
+ * the upload time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoilReading {
+
+    @NotNull
+    @DecimalMin("0.0")
+    private Double nitrogen;
+
+    @NotNull
+    @DecimalMin("0.0")
+    private Double phosphorus;
+
+    @NotNull
+    @DecimalMin("0.0")
+    private Double potassium;
+
+    @NotNull
+    @DecimalMin("0.0")
+    @DecimalMax("14.0")
+    private Double ph;
+
+    @NotNull
+    @DecimalMin("0.0")
+    @DecimalMax("100.0")
+    private Double moisture;
+
+    @PastOrPresent
+    private LocalDateTime recordedDate;
+}
@@ -17,6 +17,7 @@ import java.util.List;
 @Table(name = "crops", indexes = {
         @Index(name = "idx_crop_name", columnList = "crop_name", unique = true)
 })
+@EntityListeners(CropChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,28 @@
+package com.crop.entity;
+
+import com.crop.service.CropCatalog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory {@link CropCatalog} in step with writes to the crops table.
+ * The catalog is looked up lazily because Hibernate creates this listener while
+ * the entity manager factory (which the catalog's repository needs) is still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class CropChangeListener {
+
+    private final ObjectProvider<CropCatalog> cropCatalog;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCropChanged(Crop crop) {
+        cropCatalog.ifAvailable(CropCatalog::invalidate);
+    }
+}
@@ -0,0 +1,49 @@
+package com.crop.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-crop rollup of recommendations: count, confidence sum and sum of squares, min and max.
+ * Written only through {@code CropStatsRepository} (JDBC) in the same transaction as the
+ * recommendation insert; mapped here so the schema is created and validated with the others.
+ */
+@Entity
+@Table(name = "crop_recommendation_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CropRecommendationStats {
+
+    @Id
+    @Column(name = "crop_id")
+    private Long cropId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long recCount;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double confidenceSum;
+
+    // Defaulted so the column can be added to an existing table; the reconcile job fills it in.
+    @NotNull
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Double confidenceSqSum;
+
+    private Double confidenceMin;
+
+    private Double confidenceMax;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
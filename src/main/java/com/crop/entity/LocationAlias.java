@@ -0,0 +1,40 @@
+package com.crop.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A normalized free-text location ("pune", "pune,in") resolved to an OpenWeather city and the
+ * canonical key weather is cached and stored under. Written only through
+ * {@code LocationAliasRepository} (JDBC); mapped here so the schema is created and validated with the others.
+ */
+@Entity
+@Table(name = "location_aliases", indexes = {
+        @Index(name = "idx_location_alias_city", columnList = "city_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationAlias {
+
+    @Id
+    @Column(length = 255)
+    private String alias;
+
+    @NotNull
+    @Column(name = "city_id", nullable = false)
+    private Long cityId;
+
+    @NotNull
+    @Column(nullable = false, length = 255)
+    private String locationKey;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
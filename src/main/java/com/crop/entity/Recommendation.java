@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Table(name = "recommendations", indexes = {
         @Index(name = "idx_recommendation_user_id", columnList = "user_id"),
         @Index(name = "idx_recommendation_crop_id", columnList = "crop_id"),
-        @Index(name = "idx_recommendation_date", columnList = "recommendation_date")
+        @Index(name = "idx_recommendation_date", columnList = "recommendation_date"),
+        @Index(name = "idx_recommendation_user_date", columnList = "user_id, recommendation_date, id")
 })
 @Getter
 @Setter
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "soil_data", indexes = {
         @Index(name = "idx_soil_user_id", columnList = "user_id"),
-        @Index(name = "idx_soil_recorded_date", columnList = "recorded_date")
+        @Index(name = "idx_soil_recorded_date", columnList = "recorded_date"),
+        @Index(name = "idx_soil_user_date", columnList = "user_id, recorded_date, id")
 })
 @Getter
 @Setter
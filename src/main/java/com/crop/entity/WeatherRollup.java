@@ -0,0 +1,92 @@
+package com.crop.entity;
+
+import com.crop.entity.enums.WeatherResolution;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Compacted weather: per location, one row per hour or day with the reading count and the sum,
+ * min and max of each measure (mean = sum / count; the rainfall sum is the bucket total).
+ * Written only through {@code WeatherRollupRepository} (JDBC) by the retention job; mapped here
+ * so the schema is created and validated with the others.
+ */
+@Entity
+@Table(name = "weather_rollup", indexes = {
+        @Index(name = "idx_weather_rollup_bucket", columnList = "resolution, bucket_start")
+})
+@IdClass(WeatherRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeatherRollup {
+
+    @Id
+    @Column(length = 255)
+    private String location;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 8)
+    private WeatherResolution resolution;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long sampleCount;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double temperatureSum;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double temperatureMin;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double temperatureMax;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double humiditySum;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double humidityMin;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double humidityMax;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double rainfallSum;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double rainfallMin;
+
+    @NotNull
+    @Column(nullable = false)
+    private Double rainfallMax;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String location;
+        private WeatherResolution resolution;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -0,0 +1,9 @@
+package com.crop.entity.enums;
+
+/**
+ * Bucket width of a compacted weather aggregate.
+ */
+public enum WeatherResolution {
+    HOUR,
+    DAY
+}
@@ -50,6 +50,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(WeatherUnavailableException.class)
+    public ResponseEntity<ApiError> handleWeatherUnavailable(
+            WeatherUnavailableException ex, HttpServletRequest request) {
+        log.warn("Weather unavailable: {}", ex.getMessage());
+        ApiError error = ApiError.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .timestamp(Instant.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiError> handleBadCredentials(
             BadCredentialsException ex, HttpServletRequest request) {
@@ -0,0 +1,11 @@
+package com.crop.exception;
+
+/**
+ * OpenWeather was not called: its circuit is open or too many calls are already in flight.
+ */
+public class WeatherUnavailableException extends RuntimeException {
+
+    public WeatherUnavailableException(String message) {
+        super(message);
+    }
+}
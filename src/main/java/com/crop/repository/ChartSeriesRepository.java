@@ -0,0 +1,69 @@
+package com.crop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams readings for dashboard charts over a time range, row by row, without building entities
+ * (weather includes the compacted hourly and daily aggregates).
+ * Callers aggregate in the callback; the result set is never held as a list.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChartSeriesRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Columns: recorded_date, nitrogen, phosphorus, potassium. Uses idx_soil_user_date. */
+    public void streamSoil(long userId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT recorded_date, nitrogen, phosphorus, potassium FROM soil_data "
+                    + "WHERE user_id = ? AND recorded_date >= ? AND recorded_date < ?");
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Weather over [from, to) from every retention tier: raw readings plus hourly and daily
+     * aggregates from {@code weather_rollup}. A reading lives in exactly one tier at a time, so the
+     * union counts it once wherever compaction has got to. Columns: time, sample_count,
+     * rainfall sum/min/max, temperature sum/min/max (a raw reading is a count-1 sample).
+     * All locations when {@code location} is null.
+     */
+    public void streamWeather(String location, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        String byLocation = location == null ? "" : " AND location = ?";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT recorded_date, 1, rainfall, rainfall, rainfall, temperature, temperature, temperature "
+                    + "FROM weather_data WHERE recorded_date >= ? AND recorded_date < ?" + byLocation
+                    + " UNION ALL "
+                    + "SELECT bucket_start, sample_count, rainfall_sum, rainfall_min, rainfall_max, "
+                    + "temperature_sum, temperature_min, temperature_max "
+                    + "FROM weather_rollup WHERE resolution IN ('HOUR', 'DAY') AND bucket_start >= ? AND bucket_start < ?"
+                    + byLocation);
+            ps.setFetchSize(FETCH_SIZE);
+            int i = 1;
+            for (int tier = 0; tier < 2; tier++) {
+                ps.setTimestamp(i++, Timestamp.valueOf(from));
+                ps.setTimestamp(i++, Timestamp.valueOf(to));
+                if (location != null) {
+                    ps.setString(i++, location);
+                }
+            }
+            return ps;
+        }, handler);
+    }
+}
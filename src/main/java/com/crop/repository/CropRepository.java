@@ -17,4 +17,8 @@ public interface CropRepository extends JpaRepository<Crop, Long> {
 
     @Query("SELECT c.cropName, c.rainAvg, c.nAvg, c.pAvg, c.kAvg, c.phAvg FROM Crop c ORDER BY c.cropName")
     List<Object[]> getAllCropStats();
+
+    @Query("SELECT c.id, c.cropName, c.idealNMin, c.idealNMax, c.idealPMin, c.idealPMax, c.idealKMin, c.idealKMax, "
+            + "c.idealPhMin, c.idealPhMax, c.idealRainfallMin, c.idealRainfallMax FROM Crop c ORDER BY c.id")
+    List<Object[]> findAllIdealRanges();
 }
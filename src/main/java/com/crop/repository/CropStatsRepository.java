@@ -0,0 +1,204 @@
+package com.crop.repository;
+
+import com.crop.repository.RecommendationBatchRepository.RecommendationRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * The {@code crop_recommendation_stats} rollup: one row per crop with count, confidence sum and
+ * sum of squares, min and max.
+ *
+ * <p>Inserts add their deltas in the inserting transaction ({@link #add}), so dashboards read one
+ * row per crop instead of grouping the whole recommendations table. Deletes (user or crop cascades)
+ * and rows written outside the application are repaired by {@link #reconcile}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CropStatsRepository {
+
+    private static final String UPDATE_SQL =
+            "UPDATE crop_recommendation_stats SET rec_count = rec_count + ?, confidence_sum = confidence_sum + ?, "
+            + "confidence_sq_sum = confidence_sq_sum + ?, "
+            + "confidence_min = LEAST(confidence_min, ?), confidence_max = GREATEST(confidence_max, ?), updated_at = ? "
+            + "WHERE crop_id = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO crop_recommendation_stats (crop_id, rec_count, confidence_sum, confidence_sq_sum, confidence_min, confidence_max, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String REPLACE_SQL =
+            "UPDATE crop_recommendation_stats SET rec_count = ?, confidence_sum = ?, confidence_sq_sum = ?, confidence_min = ?, confidence_max = ?, "
+            + "updated_at = ? WHERE crop_id = ?";
+
+    private static final String TOP_SQL =
+            "SELECT c.crop_name, s.rec_count, s.confidence_sum, s.confidence_min, s.confidence_max "
+            + "FROM crop_recommendation_stats s JOIN crops c ON c.id = s.crop_id "
+            + "WHERE s.rec_count > 0 ORDER BY s.rec_count DESC, c.crop_name LIMIT ?";
+
+    private static final String TOTALS_COLUMNS =
+            "COUNT(*), SUM(confidence_score), SUM(confidence_score * confidence_score), MIN(confidence_score), MAX(confidence_score)";
+
+    private static final RowMapper<Totals> TOTALS_MAPPER = (rs, i) ->
+            new Totals(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add freshly inserted recommendations to the rollup. Rows are folded per crop first and crops
+     * are updated in id order, so concurrent batches lock rollup rows in the same order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(List<RecommendationRow> rows) {
+        Map<Long, Totals> byCrop = new TreeMap<>();
+        for (RecommendationRow row : rows) {
+            byCrop.merge(row.cropId(), Totals.of(row.confidenceScore()), Totals::plus);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        byCrop.forEach((cropId, delta) -> {
+            if (increment(cropId, delta, now) == 0) {
+                try {
+                    insert(cropId, delta, now);
+                } catch (DuplicateKeyException e) {
+                    // Another transaction created the row first; it is ours to add to now.
+                    increment(cropId, delta, now);
+                }
+            }
+        });
+    }
+
+    /** Most recommended crops, highest count first. Reads at most one row per crop. */
+    public List<CropStats> findTop(int limit) {
+        return jdbcTemplate.query(TOP_SQL, (rs, i) -> new CropStats(
+                rs.getString(1), rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5)), limit);
+    }
+
+    /**
+     * Mean and population standard deviation of every stored confidence score, summed from the
+     * rollup (one row per crop) rather than scanning recommendations.
+     */
+    public ConfidenceSummary confidenceSummary() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(rec_count), 0), COALESCE(SUM(confidence_sum), 0), COALESCE(SUM(confidence_sq_sum), 0) "
+                + "FROM crop_recommendation_stats",
+                (rs, i) -> ConfidenceSummary.of(rs.getLong(1), rs.getDouble(2), rs.getDouble(3)));
+    }
+
+    /** Rollup rows by crop id, as stored. */
+    public Map<Long, Totals> findAllTotals() {
+        Map<Long, Totals> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT crop_id, rec_count, confidence_sum, confidence_sq_sum, confidence_min, confidence_max FROM crop_recommendation_stats",
+                rs -> {
+                    totals.put(rs.getLong(1), new Totals(rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6)));
+                });
+        return totals;
+    }
+
+    /** Totals recomputed from the recommendations table, by crop id. Full scan; background use only. */
+    public Map<Long, Totals> aggregateRecommendations() {
+        Map<Long, Totals> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT crop_id, " + TOTALS_COLUMNS + " FROM recommendations GROUP BY crop_id",
+                rs -> {
+                    totals.put(rs.getLong(1), new Totals(rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6)));
+                });
+        return totals;
+    }
+
+    /**
+     * Recompute one crop's row from the base table. The rollup row is locked first, so an insert
+     * for this crop either commits before the recount (and is counted) or waits and adds its delta
+     * afterwards. Returns true if the stored row was changed.
+     */
+    @Transactional
+    public boolean reconcile(long cropId) {
+        Optional<Totals> stored = jdbcTemplate.query(
+                "SELECT rec_count, confidence_sum, confidence_sq_sum, confidence_min, confidence_max FROM crop_recommendation_stats "
+                + "WHERE crop_id = ? FOR UPDATE", TOTALS_MAPPER, cropId).stream().findFirst();
+        Optional<Totals> actual = jdbcTemplate.query(
+                "SELECT " + TOTALS_COLUMNS + " FROM recommendations WHERE crop_id = ?", TOTALS_MAPPER, cropId)
+                .stream().filter(t -> t.count() > 0).findFirst();
+        if (actual.isEmpty()) {
+            return stored.isPresent()
+                    && jdbcTemplate.update("DELETE FROM crop_recommendation_stats WHERE crop_id = ?", cropId) > 0;
+        }
+        if (stored.isPresent() && stored.get().matches(actual.get())) {
+            return false;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Totals totals = actual.get();
+        if (stored.isPresent()) {
+            jdbcTemplate.update(REPLACE_SQL, totals.count(), totals.sum(), totals.sumOfSquares(), totals.min(), totals.max(), now, cropId);
+            return true;
+        }
+        try {
+            insert(cropId, totals, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Created by a concurrent insert after our check; the next run compares again.
+            return false;
+        }
+    }
+
+    private int increment(long cropId, Totals delta, Timestamp now) {
+        return jdbcTemplate.update(UPDATE_SQL, delta.count(), delta.sum(), delta.sumOfSquares(), delta.min(), delta.max(), now, cropId);
+    }
+
+    private void insert(long cropId, Totals totals, Timestamp now) {
+        jdbcTemplate.update(INSERT_SQL, cropId, totals.count(), totals.sum(), totals.sumOfSquares(), totals.min(), totals.max(), now);
+    }
+
+    /** Count, sum, sum of squares, min and max of confidence scores for one crop. */
+    public record Totals(long count, double sum, double sumOfSquares, double min, double max) {
+
+        static Totals of(double confidence) {
+            return new Totals(1, confidence, confidence * confidence, confidence, confidence);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, sum + other.sum, sumOfSquares + other.sumOfSquares,
+                    Math.min(min, other.min), Math.max(max, other.max));
+        }
+
+        /** Equal up to floating-point drift in the sums, which are accumulated in a different order. */
+        public boolean matches(Totals other) {
+            return count == other.count && min == other.min && max == other.max
+                    && close(sum, other.sum) && close(sumOfSquares, other.sumOfSquares);
+        }
+
+        private static boolean close(double a, double b) {
+            return Math.abs(a - b) <= 1e-6 * Math.max(1.0, Math.abs(b));
+        }
+    }
+
+    public record ConfidenceSummary(long count, double mean, double standardDeviation) {
+
+        static ConfidenceSummary of(long count, double sum, double sumOfSquares) {
+            if (count == 0) {
+                return new ConfidenceSummary(0, 0.0, 0.0);
+            }
+            double mean = sum / count;
+            // Scores are bounded (0-100), so E[x^2] - mean^2 loses little precision; clamp rounding below zero.
+            double variance = Math.max(0.0, sumOfSquares / count - mean * mean);
+            return new ConfidenceSummary(count, mean, Math.sqrt(variance));
+        }
+    }
+
+    public record CropStats(String cropName, long count, double confidenceSum, double confidenceMin, double confidenceMax) {
+
+        public double averageConfidence() {
+            return count == 0 ? 0.0 : confidenceSum / count;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.crop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The {@code location_aliases} table: normalized location text to OpenWeather city id and
+ * canonical location key. Rows are never updated; an alias keeps the city it first resolved to.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LocationAliasRepository {
+
+    private static final RowMapper<AliasRow> MAPPER = (rs, i) ->
+            new AliasRow(rs.getString(1), rs.getLong(2), rs.getString(3));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The {@code limit} most recently created aliases, newest first. */
+    public List<AliasRow> findNewest(int limit) {
+        return jdbcTemplate.query("SELECT alias, city_id, location_key FROM location_aliases "
+                + "ORDER BY created_at DESC LIMIT ?", MAPPER, limit);
+    }
+
+    public Optional<AliasRow> find(String alias) {
+        return jdbcTemplate.query("SELECT alias, city_id, location_key FROM location_aliases WHERE alias = ?", MAPPER, alias)
+                .stream().findFirst();
+    }
+
+    /** The first alias stored for a city; its key is the one the city keeps. */
+    public Optional<AliasRow> findFirstByCity(long cityId) {
+        return jdbcTemplate.query("SELECT alias, city_id, location_key FROM location_aliases WHERE city_id = ? "
+                + "ORDER BY created_at LIMIT 1", MAPPER, cityId)
+                .stream().findFirst();
+    }
+
+    /** Insert unless the alias exists. Returns false if another writer stored it first. */
+    public boolean insert(AliasRow row) {
+        try {
+            jdbcTemplate.update("INSERT INTO location_aliases (alias, city_id, location_key, created_at) VALUES (?, ?, ?, ?)",
+                    row.alias(), row.cityId(), row.locationKey(), Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public record AliasRow(String alias, long cityId, String locationKey) {
+    }
+}
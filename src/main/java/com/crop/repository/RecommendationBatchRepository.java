@@ -0,0 +1,62 @@
+package com.crop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts into recommendations. Multi-row inserts go through a single JDBC batch; JPA cannot batch
+ * these because {@code Recommendation} uses IDENTITY ids. Every insert path comes through here so the
+ * {@link CropStatsRepository} rollup is updated in the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecommendationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO recommendations (user_id, crop_id, recommendation_date, confidence_score) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CropStatsRepository cropStatsRepository;
+
+    /** Insert one recommendation and return its generated id. */
+    @Transactional
+    public long insert(RecommendationRow row) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            bind(ps, row);
+            return ps;
+        }, keys);
+        cropStatsRepository.add(List.of(row));
+        return keys.getKey().longValue();
+    }
+
+    @Transactional
+    public void insertAll(List<RecommendationRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), RecommendationBatchRepository::bind);
+        cropStatsRepository.add(rows);
+    }
+
+    private static void bind(PreparedStatement ps, RecommendationRow row) throws SQLException {
+        ps.setLong(1, row.userId());
+        ps.setLong(2, row.cropId());
+        ps.setTimestamp(3, Timestamp.valueOf(row.recommendationDate()));
+        ps.setDouble(4, row.confidenceScore());
+    }
+
+    public record RecommendationRow(long userId, long cropId, LocalDateTime recommendationDate, double confidenceScore) {}
+}
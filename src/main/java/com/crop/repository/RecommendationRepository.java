@@ -1,11 +1,13 @@
 package com.crop.repository;
 
+import com.crop.dto.RecommendationHistoryItem;
 import com.crop.entity.Recommendation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,8 +18,19 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
 
     List<Recommendation> findByUserId(Long userId);
 
-    @Query("SELECT r.crop.cropName, COUNT(r) as cnt, AVG(r.confidenceScore) as avg FROM Recommendation r GROUP BY r.crop.cropName ORDER BY cnt DESC")
-    List<Object[]> countRecommendationsByCropName(org.springframework.data.domain.Pageable pageable);
+    // Keyset history: newest first, id breaks timestamp ties. Served by idx_recommendation_user_date.
+    @Query("SELECT new com.crop.dto.RecommendationHistoryItem(r.id, c.cropName, r.confidenceScore, r.recommendationDate) "
+            + "FROM Recommendation r JOIN r.crop c WHERE r.user.id = :userId "
+            + "ORDER BY r.recommendationDate DESC, r.id DESC")
+    List<RecommendationHistoryItem> findHistory(@Param("userId") Long userId,
+            org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT new com.crop.dto.RecommendationHistoryItem(r.id, c.cropName, r.confidenceScore, r.recommendationDate) "
+            + "FROM Recommendation r JOIN r.crop c WHERE r.user.id = :userId "
+            + "AND (r.recommendationDate < :date OR (r.recommendationDate = :date AND r.id < :id)) "
+            + "ORDER BY r.recommendationDate DESC, r.id DESC")
+    List<RecommendationHistoryItem> findHistoryBefore(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+            @Param("id") Long id, org.springframework.data.domain.Pageable pageable);
 
     @Query("SELECT r FROM Recommendation r JOIN FETCH r.crop WHERE r.user.id = :userId ORDER BY r.recommendationDate DESC")
     List<Recommendation> findByUserIdWithCrop(@Param("userId") Long userId,
@@ -0,0 +1,45 @@
+package com.crop.repository;
+
+import com.crop.dto.SoilReading;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Multi-row inserts into soil_data through a single JDBC batch.
+ * JPA cannot batch these because {@code SoilData} uses IDENTITY ids; with
+ * {@code rewriteBatchedStatements=true} MySQL receives one multi-row INSERT per batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SoilDataBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO soil_data (user_id, nitrogen, phosphorus, potassium, ph, moisture, recorded_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Insert validated readings for one user; readings without a date get {@code defaultDate}. */
+    @Transactional
+    public void insertAll(long userId, List<SoilReading> readings, LocalDateTime defaultDate) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        Timestamp fallback = Timestamp.valueOf(defaultDate);
+        jdbcTemplate.batchUpdate(INSERT_SQL, readings, readings.size(), (ps, r) -> {
+            ps.setLong(1, userId);
+            ps.setDouble(2, r.getNitrogen());
+            ps.setDouble(3, r.getPhosphorus());
+            ps.setDouble(4, r.getPotassium());
+            ps.setDouble(5, r.getPh());
+            ps.setDouble(6, r.getMoisture());
+            ps.setTimestamp(7, r.getRecordedDate() == null ? fallback : Timestamp.valueOf(r.getRecordedDate()));
+        });
+    }
+}
@@ -16,6 +16,16 @@ public interface SoilDataRepository extends JpaRepository<SoilData, Long> {
 
     List<SoilData> findByUserId(Long userId);
 
+    // Keyset history: newest first, id breaks timestamp ties. Served by idx_soil_user_date.
+    @Query("SELECT s FROM SoilData s WHERE s.user.id = :userId ORDER BY s.recordedDate DESC, s.id DESC")
+    List<SoilData> findHistory(@Param("userId") Long userId, org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT s FROM SoilData s WHERE s.user.id = :userId "
+            + "AND (s.recordedDate < :date OR (s.recordedDate = :date AND s.id < :id)) "
+            + "ORDER BY s.recordedDate DESC, s.id DESC")
+    List<SoilData> findHistoryBefore(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+            @Param("id") Long id, org.springframework.data.domain.Pageable pageable);
+
     @Query("SELECT s FROM SoilData s WHERE s.user.id = :userId AND s.recordedDate >= :since ORDER BY s.recordedDate DESC")
     List<SoilData> findByUserIdAndRecordedDateAfter(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 }
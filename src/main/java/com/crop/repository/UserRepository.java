@@ -16,4 +16,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     List<User> findByRole(Role role);
+
+    /** Email and role only, for revocation checks on token-authenticated requests. */
+    Optional<UserStatus> findStatusById(Long id);
+
+    interface UserStatus {
+        String getEmail();
+
+        Role getRole();
+    }
 }
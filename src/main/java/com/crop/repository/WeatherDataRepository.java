@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,5 +23,7 @@ public interface WeatherDataRepository extends JpaRepository<WeatherData, Long>
 
     Optional<WeatherData> findFirstByLocationOrderByRecordedDateDesc(String location);
 
+    Optional<WeatherData> findFirstByLocationInOrderByRecordedDateDesc(Collection<String> locations);
+
     List<WeatherData> findByLocationAndRecordedDateAfter(String location, LocalDateTime since);
 }
@@ -0,0 +1,217 @@
+package com.crop.repository;
+
+import com.crop.entity.WeatherData;
+import com.crop.entity.enums.WeatherResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Compaction of weather readings into the {@code weather_rollup} tiers: raw rows into hourly
+ * aggregates, hourly aggregates into daily ones.
+ *
+ * <p>Each call moves one chunk in one transaction: the source rows are locked, folded into their
+ * buckets and deleted together, so every reading is counted in exactly one tier at any time and
+ * readers that union the tiers ({@link ChartSeriesRepository#streamWeather}) never see it twice
+ * or not at all. Small chunks keep lock time and undo log short on a busy table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WeatherRollupRepository {
+
+    private static final String UPDATE_SQL =
+            "UPDATE weather_rollup SET sample_count = sample_count + ?, "
+            + "temperature_sum = temperature_sum + ?, temperature_min = LEAST(temperature_min, ?), temperature_max = GREATEST(temperature_max, ?), "
+            + "humidity_sum = humidity_sum + ?, humidity_min = LEAST(humidity_min, ?), humidity_max = GREATEST(humidity_max, ?), "
+            + "rainfall_sum = rainfall_sum + ?, rainfall_min = LEAST(rainfall_min, ?), rainfall_max = GREATEST(rainfall_max, ?) "
+            + "WHERE location = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO weather_rollup (location, resolution, bucket_start, sample_count, "
+            + "temperature_sum, temperature_min, temperature_max, humidity_sum, humidity_min, humidity_max, "
+            + "rainfall_sum, rainfall_min, rainfall_max) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Fold up to {@code chunkSize} raw readings recorded before {@code before} into hourly rows and
+     * delete them. Returns the number of readings moved; fewer than {@code chunkSize} means done.
+     */
+    @Transactional
+    public int compactRaw(LocalDateTime before, int chunkSize) {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        Map<Bucket, Aggregate> hours = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, location, recorded_date, temperature, humidity, rainfall FROM weather_data "
+                        + "WHERE recorded_date < ? ORDER BY recorded_date, id LIMIT ? FOR UPDATE",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    LocalDateTime hour = rs.getTimestamp(3).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+                    hours.merge(new Bucket(rs.getString(2), hour),
+                            Aggregate.of(rs.getDouble(4), rs.getDouble(5), rs.getDouble(6)), Aggregate::plus);
+                }, Timestamp.valueOf(before), chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        merge(hours, WeatherResolution.HOUR);
+        jdbcTemplate.batchUpdate("DELETE FROM weather_data WHERE id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+        return ids.size();
+    }
+
+    /**
+     * Fold up to {@code chunkSize} hourly rows starting before {@code before} into daily rows and
+     * delete them. Returns the number of hourly rows moved.
+     */
+    @Transactional
+    public int compactHourly(LocalDateTime before, int chunkSize) {
+        List<Bucket> sources = new ArrayList<>(chunkSize);
+        Map<Bucket, Aggregate> days = new TreeMap<>();
+        jdbcTemplate.query("SELECT location, bucket_start, sample_count, temperature_sum, temperature_min, temperature_max, "
+                        + "humidity_sum, humidity_min, humidity_max, rainfall_sum, rainfall_min, rainfall_max "
+                        + "FROM weather_rollup WHERE resolution = ? AND bucket_start < ? "
+                        + "ORDER BY bucket_start, location LIMIT ? FOR UPDATE",
+                rs -> {
+                    Bucket hour = new Bucket(rs.getString(1), rs.getTimestamp(2).toLocalDateTime());
+                    sources.add(hour);
+                    days.merge(new Bucket(hour.location(), hour.start().truncatedTo(ChronoUnit.DAYS)),
+                            new Aggregate(rs.getLong(3),
+                                    rs.getDouble(4), rs.getDouble(5), rs.getDouble(6),
+                                    rs.getDouble(7), rs.getDouble(8), rs.getDouble(9),
+                                    rs.getDouble(10), rs.getDouble(11), rs.getDouble(12)),
+                            Aggregate::plus);
+                }, WeatherResolution.HOUR.name(), Timestamp.valueOf(before), chunkSize);
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        merge(days, WeatherResolution.DAY);
+        jdbcTemplate.batchUpdate("DELETE FROM weather_rollup WHERE location = ? AND resolution = ? AND bucket_start = ?",
+                sources, sources.size(), (ps, hour) -> {
+                    ps.setString(1, hour.location());
+                    ps.setString(2, WeatherResolution.HOUR.name());
+                    ps.setTimestamp(3, Timestamp.valueOf(hour.start()));
+                });
+        return sources.size();
+    }
+
+    /**
+     * Newest bucket of any tier under one of {@code locations}, as an unsaved reading of the
+     * bucket's means recorded at its start. Used once retention has compacted every raw row.
+     */
+    @Transactional(readOnly = true)
+    public Optional<WeatherData> findLatest(Collection<String> locations) {
+        String placeholders = String.join(", ", Collections.nCopies(locations.size(), "?"));
+        List<WeatherData> latest = jdbcTemplate.query("SELECT location, bucket_start, sample_count, "
+                        + "temperature_sum, humidity_sum, rainfall_sum FROM weather_rollup "
+                        + "WHERE location IN (" + placeholders + ") AND sample_count > 0 "
+                        + "ORDER BY bucket_start DESC LIMIT 1",
+                (rs, i) -> {
+                    long count = rs.getLong(3);
+                    return WeatherData.builder()
+                            .location(rs.getString(1))
+                            .recordedDate(rs.getTimestamp(2).toLocalDateTime())
+                            .temperature(rs.getDouble(4) / count)
+                            .humidity(rs.getDouble(5) / count)
+                            .rainfall(rs.getDouble(6) / count)
+                            .build();
+                }, locations.toArray());
+        return latest.stream().findFirst();
+    }
+
+    /**
+     * Add to existing bucket rows in one batch, then insert the missing buckets in a second batch.
+     * Buckets arrive sorted, so concurrent compactions lock rows in the same order; if another one
+     * still creates a bucket first, the duplicate key rolls this chunk back and the next run retries it.
+     */
+    private void merge(Map<Bucket, Aggregate> buckets, WeatherResolution resolution) {
+        List<Map.Entry<Bucket, Aggregate>> entries = new ArrayList<>(buckets.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, entries, entries.size(),
+                (ps, e) -> bindUpdate(ps, e.getKey(), resolution, e.getValue()));
+        List<Map.Entry<Bucket, Aggregate>> missing = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(entries.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (ps, e) -> {
+            Bucket bucket = e.getKey();
+            Aggregate a = e.getValue();
+            ps.setString(1, bucket.location());
+            ps.setString(2, resolution.name());
+            ps.setTimestamp(3, Timestamp.valueOf(bucket.start()));
+            ps.setLong(4, a.count());
+            ps.setDouble(5, a.temperatureSum());
+            ps.setDouble(6, a.temperatureMin());
+            ps.setDouble(7, a.temperatureMax());
+            ps.setDouble(8, a.humiditySum());
+            ps.setDouble(9, a.humidityMin());
+            ps.setDouble(10, a.humidityMax());
+            ps.setDouble(11, a.rainfallSum());
+            ps.setDouble(12, a.rainfallMin());
+            ps.setDouble(13, a.rainfallMax());
+        });
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Bucket bucket, WeatherResolution resolution, Aggregate a)
+            throws SQLException {
+        ps.setLong(1, a.count());
+        ps.setDouble(2, a.temperatureSum());
+        ps.setDouble(3, a.temperatureMin());
+        ps.setDouble(4, a.temperatureMax());
+        ps.setDouble(5, a.humiditySum());
+        ps.setDouble(6, a.humidityMin());
+        ps.setDouble(7, a.humidityMax());
+        ps.setDouble(8, a.rainfallSum());
+        ps.setDouble(9, a.rainfallMin());
+        ps.setDouble(10, a.rainfallMax());
+        ps.setString(11, bucket.location());
+        ps.setString(12, resolution.name());
+        ps.setTimestamp(13, Timestamp.valueOf(bucket.start()));
+    }
+
+    private record Bucket(String location, LocalDateTime start) implements Comparable<Bucket> {
+
+        private static final Comparator<Bucket> ORDER =
+                Comparator.comparing(Bucket::location).thenComparing(Bucket::start);
+
+        @Override
+        public int compareTo(Bucket other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record Aggregate(long count,
+                             double temperatureSum, double temperatureMin, double temperatureMax,
+                             double humiditySum, double humidityMin, double humidityMax,
+                             double rainfallSum, double rainfallMin, double rainfallMax) {
+
+        static Aggregate of(double temperature, double humidity, double rainfall) {
+            return new Aggregate(1, temperature, temperature, temperature,
+                    humidity, humidity, humidity, rainfall, rainfall, rainfall);
+        }
+
+        Aggregate plus(Aggregate o) {
+            return new Aggregate(count + o.count,
+                    temperatureSum + o.temperatureSum, Math.min(temperatureMin, o.temperatureMin), Math.max(temperatureMax, o.temperatureMax),
+                    humiditySum + o.humiditySum, Math.min(humidityMin, o.humidityMin), Math.max(humidityMax, o.humidityMax),
+                    rainfallSum + o.rainfallSum, Math.min(rainfallMin, o.rainfallMin), Math.max(rainfallMax, o.rainfallMax));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.crop.security;
+
+import com.crop.entity.User;
+import com.crop.entity.enums.Role;
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * Authenticated user as seen by controllers: id, email and role.
+ * For API requests it is built from verified JWT claims, so resolving the caller needs no
+ * user table read; controllers use {@code userRepository.getReferenceById(principal.getId())}
+ * when an entity reference is required.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class AppUserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    /** Only set when loaded for password login; null for token-authenticated requests. */
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+
+    public static AppUserPrincipal fromUser(User user) {
+        return new AppUserPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getPassword(),
+                authoritiesFor(user.getRole()));
+    }
+
+    /**
+     * Principal from the {@code sub}, {@code userId} and {@code role} claims written by
+     * {@link JwtUtil#generateToken}; null if any of them is missing or unknown.
+     */
+    public static AppUserPrincipal fromClaims(Claims claims) {
+        String email = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        String roleName = claims.get("role", String.class);
+        if (email == null || userId == null || roleName == null) {
+            return null;
+        }
+        Role role;
+        try {
+            role = Role.valueOf(roleName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new AppUserPrincipal(userId, email, role, null, authoritiesFor(role));
+    }
+
+    private static List<GrantedAuthority> authoritiesFor(Role role) {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.crop.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +29,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
 
     @Override
     protected void doFilterInternal(
@@ -37,16 +39,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                String email = jwtUtil.extractEmail(jwt);
-                if (email != null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                    if (jwtUtil.validateToken(jwt, email)) {
-                        UsernamePasswordAuthenticationToken auth =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails, null, userDetails.getAuthorities());
-                        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(auth);
-                    }
+                // One verification (usually a cache hit) covers signature, expiry and subject.
+                Claims claims = jwtUtil.verifiedClaims(jwt);
+                UserDetails userDetails = claims == null || claims.getSubject() == null ? null : principalFor(claims);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken auth =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities());
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             }
         } catch (Exception e) {
@@ -55,6 +56,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal from verified claims, without reading the user table unless the revocation
+     * check is enabled (and then at most once per user per TTL).
+     */
+    private UserDetails principalFor(Claims claims) {
+        AppUserPrincipal principal = AppUserPrincipal.fromClaims(claims);
+        if (principal == null) {
+            // Token without id/role claims: resolve the user the old way.
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (userStatusCache.isEnabled() && !userStatusCache.isCurrent(principal)) {
+            log.debug("Rejecting token for changed or deleted user {}", principal.getId());
+            return null;
+        }
+        return principal;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
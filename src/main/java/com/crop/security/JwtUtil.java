@@ -2,25 +2,46 @@ package com.crop.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT token generation and validation.
+ *
+ * <p>The signing key and parser are built once. Verified claims are cached by the SHA-256 digest
+ * of the token (raw tokens are never kept) until the token's own expiry, so a repeat request
+ * costs one hash instead of a base64 decode, JSON parse and HMAC check.
+ *
+ * <p>Each {@link #verifiedClaims} call is timed as {@code jwt.validation}, tagged by whether it was
+ * answered from the cache or parsed, and whether the token was accepted.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtil {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -30,8 +51,37 @@ public class JwtUtil {
     @Value("${jwt.issuer}")
     private String issuer;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private final Map<ByteBuffer, VerifiedClaims> verified = new ConcurrentHashMap<>();
+    private Timer cachedValid;
+    private Timer cachedRejected;
+    private Timer parsedValid;
+    private Timer parsedRejected;
+
+    private record VerifiedClaims(Claims claims, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        cachedValid = validationTimer("cache", "valid");
+        cachedRejected = validationTimer("cache", "rejected");
+        parsedValid = validationTimer("parse", "valid");
+        parsedRejected = validationTimer("parse", "rejected");
+    }
+
+    private Timer validationTimer(String source, String result) {
+        return Timer.builder("jwt.validation")
+                .description("Bearer token validation")
+                .tag("source", source)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public String generateToken(String email, Long userId, String role) {
@@ -44,16 +94,15 @@ public class JwtUtil {
                 .issuer(issuer)
                 .issuedAt(now)
                 .expiration(expiry)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Parse and verify without the cache. Throws on an invalid or expired token.
+     */
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String extractEmail(String token) {
@@ -64,20 +113,81 @@ public class JwtUtil {
         return extractClaims(token).get("userId", Long.class);
     }
 
+    /**
+     * Claims of a correctly signed, unexpired token, or null. Parses at most once per distinct
+     * token while it is cached; a cached entry is dropped as soon as the token expires.
+     */
+    public Claims verifiedClaims(String token) {
+        long startNanos = System.nanoTime();
+        if (claimsCacheMaxEntries <= 0) {
+            return timed(startNanos, false, parseOrNull(token));
+        }
+        ByteBuffer key = digest(token);
+        long now = System.currentTimeMillis();
+        VerifiedClaims cached = verified.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAtMillis()) {
+                return timed(startNanos, true, cached.claims());
+            }
+            verified.remove(key, cached);
+            return timed(startNanos, true, null);
+        }
+        Claims claims = parseOrNull(token);
+        // Tokens without an expiry are verified every time rather than cached forever.
+        if (claims != null && claims.getExpiration() != null) {
+            evictIfFull(now);
+            verified.put(key, new VerifiedClaims(claims, claims.getExpiration().getTime()));
+        }
+        return timed(startNanos, false, claims);
+    }
+
+    private Claims timed(long startNanos, boolean fromCache, Claims claims) {
+        Timer timer = fromCache
+                ? (claims != null ? cachedValid : cachedRejected)
+                : (claims != null ? parsedValid : parsedRejected);
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
     public boolean validateToken(String token, String email) {
+        Claims claims = verifiedClaims(token);
+        return claims != null && email.equals(claims.getSubject());
+    }
+
+    private Claims parseOrNull(String token) {
         try {
-            String subject = extractClaims(token).getSubject();
-            return subject.equals(email) && !isTokenExpired(token);
+            return extractClaims(token);
         } catch (ExpiredJwtException e) {
             log.debug("JWT expired: {}", e.getMessage());
-            return false;
-        } catch (SignatureException | MalformedJwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             log.debug("Invalid JWT: {}", e.getMessage());
-            return false;
         }
+        return null;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** At capacity: drop expired entries, then about a tenth of the rest. */
+    private void evictIfFull(long now) {
+        if (verified.size() < claimsCacheMaxEntries) {
+            return;
+        }
+        verified.values().removeIf(v -> v.expiresAtMillis() <= now);
+        if (verified.size() < claimsCacheMaxEntries) {
+            return;
+        }
+        int excess = verified.size() - claimsCacheMaxEntries + Math.max(1, claimsCacheMaxEntries / 10);
+        Iterator<ByteBuffer> it = verified.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
     }
 }
@@ -0,0 +1,58 @@
+package com.crop.security;
+
+import com.crop.entity.enums.Role;
+import com.crop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional revocation check for token-authenticated requests. When enabled, a principal is only
+ * accepted while its user still exists with the same email and role; the answer is cached per
+ * user id for {@code security.user-check.ttl-seconds}, so a deleted or changed user is locked out
+ * within one TTL at the cost of one small query per user per TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.user-check.enabled:false}")
+    private boolean enabled;
+
+    @Value("${security.user-check.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${security.user-check.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<Long, Status> statuses = new ConcurrentHashMap<>();
+
+    /** email == null means the user no longer exists. */
+    private record Status(String email, Role role, long checkedAtNanos) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isCurrent(AppUserPrincipal principal) {
+        long now = System.nanoTime();
+        Status status = statuses.get(principal.getId());
+        if (status == null || now - status.checkedAtNanos() >= TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            status = userRepository.findStatusById(principal.getId())
+                    .map(u -> new Status(u.getEmail(), u.getRole(), now))
+                    .orElseGet(() -> new Status(null, null, now));
+            if (statuses.size() >= maxEntries) {
+                statuses.clear();
+            }
+            statuses.put(principal.getId(), status);
+        }
+        return principal.getEmail().equals(status.email()) && principal.getRole() == status.role();
+    }
+}
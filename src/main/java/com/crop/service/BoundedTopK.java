@@ -0,0 +1,83 @@
+package com.crop.service;
+
+import java.util.Arrays;
+
+/**
+ * Bounded top-K selection over primitive (match count, catalog index) pairs.
+ *
+ * <p>Each candidate is packed into one long key: match count in the high bits and the inverted
+ * catalog index in the low bits, so a larger key is a better crop (more matches, then earlier in
+ * catalog order). A min-heap of K keys keeps the best K seen so far; the root is the one to evict.
+ * Candidates must be offered in ascending index order for {@link #isSaturated()} to be valid.
+ */
+final class BoundedTopK {
+
+    private final long[] heap;
+    private int size;
+    private int perfectMatches;
+
+    BoundedTopK(int k) {
+        this.heap = new long[k];
+    }
+
+    void offer(int index, int factors) {
+        if (factors == CropRangeSnapshot.FACTORS) {
+            perfectMatches++;
+        }
+        long key = ((long) factors << 32) | (Integer.MAX_VALUE - index);
+        if (size < heap.length) {
+            heap[size] = key;
+            siftUp(size++);
+        } else if (key > heap[0]) {
+            heap[0] = key;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * True once K perfect matches have been offered: nothing later in catalog order can displace them.
+     */
+    boolean isSaturated() {
+        return perfectMatches >= heap.length;
+    }
+
+    RankedCrops toRanked(CropRangeSnapshot catalog) {
+        long[] keys = Arrays.copyOf(heap, size);
+        Arrays.sort(keys);
+        RankedCrops ranked = new RankedCrops(catalog, size);
+        for (int i = size - 1; i >= 0; i--) {
+            ranked.add(Integer.MAX_VALUE - (int) keys[i], (int) (keys[i] >>> 32));
+        }
+        return ranked;
+    }
+
+    private void siftUp(int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private void siftDown(int i) {
+        long key = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+}
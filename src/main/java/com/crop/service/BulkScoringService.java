@@ -0,0 +1,201 @@
+package com.crop.service;
+
+import com.crop.exception.BadRequestException;
+import com.crop.service.StreamFormat.RowWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Scores soil-sample CSV uploads row by row and streams one result per row.
+ * Only the current line is held in memory, so file size does not affect heap use.
+ * Results are not persisted; this is a read-only scoring pass over lab exports.
+ *
+ * <p>Input needs a header with nitrogen, phosphorus, potassium and ph columns (any order,
+ * case-insensitive). An optional rainfall column overrides the rainfall resolved from the
+ * upload's location. Rows that cannot be parsed produce an error result and scoring continues.
+ * Fields may be double-quoted (RFC 4180), with commas and {@code ""} escapes inside the quotes;
+ * a quoted field cannot span lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkScoringService {
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final StreamFormat.Column[] RESULT_COLUMNS = {
+            StreamFormat.Column.of("row"),
+            new StreamFormat.Column("crop_name", "cropName"),
+            new StreamFormat.Column("confidence_score", "confidenceScore"),
+            StreamFormat.Column.of("error")
+    };
+
+    private final CropCatalog cropCatalog;
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Header columns are validated before anything is written, so a bad header still yields a 400.
+     * Returns the number of data rows read.
+     */
+    public long score(InputStream csv, OutputStream out, StreamFormat format, String location) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BadRequestException("CSV is empty");
+        }
+        Columns columns = Columns.fromHeader(headerLine);
+        CropRangeSnapshot catalog = cropCatalog.current();
+        if (catalog.isEmpty()) {
+            throw new BadRequestException("No crops in database.");
+        }
+        double locationRainfall = recommendationService.resolveRainfall(location).value();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rows = format.open(writer, objectMapper, RESULT_COLUMNS);
+        rows.start();
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            try {
+                String[] fields = Columns.split(line);
+                double rainfall = columns.rainfall >= 0 ? columns.number(fields, columns.rainfall) : locationRainfall;
+                RankedCrops best = recommendationService.cachedRank(catalog,
+                        columns.number(fields, columns.nitrogen),
+                        columns.number(fields, columns.phosphorus),
+                        columns.number(fields, columns.potassium),
+                        columns.number(fields, columns.ph),
+                        rainfall, 1);
+                rows.startRow();
+                rows.value(rowNumber);
+                rows.value(best.cropName(0));
+                rows.value(best.confidence(0));
+                rows.absent();
+                rows.endRow();
+            } catch (IllegalArgumentException e) {
+                rows.startRow();
+                rows.value(rowNumber);
+                rows.absent();
+                rows.absent();
+                rows.value(e.getMessage());
+                rows.endRow();
+            }
+            if (rowNumber % FLUSH_EVERY_ROWS == 0) {
+                rows.flush();
+            }
+        }
+        rows.flush();
+        log.info("Bulk CSV scored: rows={}, format={}", rowNumber, format);
+        return rowNumber;
+    }
+
+    private static final class Columns {
+        int nitrogen = -1;
+        int phosphorus = -1;
+        int potassium = -1;
+        int ph = -1;
+        int rainfall = -1;
+
+        static Columns fromHeader(String headerLine) {
+            Columns c = new Columns();
+            String[] names;
+            try {
+                names = split(headerLine);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("CSV header: " + e.getMessage());
+            }
+            for (int i = 0; i < names.length; i++) {
+                switch (names[i].toLowerCase(Locale.ROOT)) {
+                    case "nitrogen", "n" -> c.nitrogen = i;
+                    case "phosphorus", "p" -> c.phosphorus = i;
+                    case "potassium", "k" -> c.potassium = i;
+                    case "ph" -> c.ph = i;
+                    case "rainfall" -> c.rainfall = i;
+                    default -> { }
+                }
+            }
+            if (c.nitrogen < 0 || c.phosphorus < 0 || c.potassium < 0 || c.ph < 0) {
+                throw new BadRequestException("CSV header must contain nitrogen, phosphorus, potassium and ph columns");
+            }
+            return c;
+        }
+
+        double number(String[] fields, int column) {
+            if (column >= fields.length) {
+                throw new IllegalArgumentException("Missing column " + (column + 1));
+            }
+            String value = fields[column];
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number in column " + (column + 1) + ": " + value);
+            }
+        }
+
+        /**
+         * Splits one CSV line into trimmed fields. A field starting with {@code "} runs to the
+         * matching closing quote, so it may contain commas; {@code ""} inside it is one quote.
+         */
+        static String[] split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int i = 0;
+            int length = line.length();
+            while (true) {
+                while (i < length && line.charAt(i) <= ' ') {
+                    i++;
+                }
+                field.setLength(0);
+                if (i < length && line.charAt(i) == '"') {
+                    i++;
+                    while (true) {
+                        if (i >= length) {
+                            throw new IllegalArgumentException("Unterminated quoted field in column " + (fields.size() + 1));
+                        }
+                        char c = line.charAt(i++);
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i < length && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    // Anything between the closing quote and the next comma is dropped.
+                    int comma = line.indexOf(',', i);
+                    i = comma < 0 ? length : comma;
+                } else {
+                    int comma = line.indexOf(',', i);
+                    int end = comma < 0 ? length : comma;
+                    field.append(line, i, end);
+                    i = end;
+                }
+                fields.add(field.toString().trim());
+                if (i >= length) {
+                    return fields.toArray(new String[0]);
+                }
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.crop.service;
+
+import com.crop.repository.CropRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory crop range catalog used by the recommendation engine.
+ * Holds one immutable {@link CropRangeSnapshot}; crop changes mark it stale and
+ * the next reader loads a new snapshot and swaps it in atomically.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CropCatalog {
+
+    private final CropRepository cropRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${crop.catalog.index-threshold:512}")
+    private int indexThreshold;
+
+    private final AtomicLong versions = new AtomicLong();
+    // A lock, not synchronized: the reload queries the database and must not pin a virtual thread.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile CropRangeSnapshot snapshot;
+    private volatile boolean stale = true;
+
+    @PostConstruct
+    void registerGauges() {
+        // Read the published snapshot only; scraping must never trigger a reload.
+        Gauge.builder("crop.catalog.size", this, c -> c.snapshot == null ? 0 : c.snapshot.size())
+                .description("Crops in the loaded catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("crop.catalog.version", this, c -> c.snapshot == null ? 0 : c.snapshot.version())
+                .description("Version of the loaded catalog snapshot; increases on every reload")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            current();
+        } catch (Exception e) {
+            log.warn("Crop catalog warm-up failed (will load on first use): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Current snapshot; loads (or reloads after a crop change) on demand.
+     */
+    public CropRangeSnapshot current() {
+        CropRangeSnapshot s = snapshot;
+        if (s != null && !stale) {
+            return s;
+        }
+        return reload();
+    }
+
+    public long version() {
+        return current().version();
+    }
+
+    /**
+     * Mark the catalog stale. Inside a transaction this waits for commit,
+     * so readers never see crops that may still roll back.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale = true;
+                }
+            });
+        } else {
+            stale = true;
+        }
+    }
+
+    private CropRangeSnapshot reload() {
+        reloadLock.lock();
+        try {
+            if (snapshot != null && !stale) {
+                return snapshot;
+            }
+            // Cleared before the query so an invalidation during the load is not lost.
+            stale = false;
+            CropRangeSnapshot loaded;
+            try {
+                loaded = CropRangeSnapshot.fromRows(
+                        versions.incrementAndGet(), cropRepository.findAllIdealRanges(), indexThreshold);
+            } catch (RuntimeException e) {
+                // Leave it stale so the next read retries the load.
+                stale = true;
+                throw e;
+            }
+            snapshot = loaded;
+            log.info("Crop catalog loaded: version={}, crops={}, indexed={}", loaded.version(), loaded.size(), loaded.index() != null);
+            return loaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.crop.service;
+
+import java.util.Arrays;
+
+/**
+ * Interval index over the five ideal-range dimensions of a {@link CropRangeSnapshot}.
+ *
+ * <p>Per dimension, crops are sorted by range minimum (ascending) and by range maximum
+ * (descending). For a query value v, "min &lt;= v" is a prefix of the first order and
+ * "max &gt;= v" is a prefix of the second, both found by binary search. Prefix bitsets are
+ * stored every {@code stride} entries, so a prefix costs one checkpoint copy plus at most
+ * {@code stride} single-bit sets. The two prefixes are ANDed into the per-dimension match
+ * set and added into a bit-sliced counter, 64 crops per word operation.
+ *
+ * <p>Results are emitted by match count descending, then index ascending, which is the
+ * same order as a stable sort of the full scan.
+ */
+public final class CropRangeIndex {
+
+    private static final int MAX_CHECKPOINTS = 64;
+    private static final int MIN_STRIDE = 1024;
+
+    private final CropRangeSnapshot catalog;
+    private final int size;
+    private final int words;
+    private final int stride;
+    private final Dimension[] dimensions = new Dimension[CropRangeSnapshot.FACTORS];
+
+    private CropRangeIndex(CropRangeSnapshot catalog) {
+        this.catalog = catalog;
+        this.size = catalog.size();
+        this.words = (size + 63) >>> 6;
+        this.stride = Math.max(MIN_STRIDE, (size + MAX_CHECKPOINTS - 1) / MAX_CHECKPOINTS);
+        for (int d = 0; d < CropRangeSnapshot.FACTORS; d++) {
+            dimensions[d] = new Dimension(catalog.lower(d), catalog.upper(d));
+        }
+    }
+
+    public static CropRangeIndex build(CropRangeSnapshot catalog) {
+        return new CropRangeIndex(catalog);
+    }
+
+    /**
+     * Best {@code limit} crops for the given soil and rainfall values.
+     */
+    public RankedCrops topK(double nitrogen, double phosphorus, double potassium, double ph, double rainfall, int limit) {
+        double[] values = {nitrogen, phosphorus, potassium, ph, rainfall};
+        long[] ones = new long[words];
+        long[] twos = new long[words];
+        long[] fours = new long[words];
+        long[] low = new long[words];
+        long[] high = new long[words];
+        for (int d = 0; d < CropRangeSnapshot.FACTORS; d++) {
+            Dimension dim = dimensions[d];
+            dim.minAtMost(values[d], low);
+            dim.maxAtLeast(values[d], high);
+            for (int w = 0; w < words; w++) {
+                long match = low[w] & high[w];
+                long carry = ones[w] & match;
+                ones[w] ^= match;
+                long carry2 = twos[w] & carry;
+                twos[w] ^= carry;
+                fours[w] |= carry2;
+            }
+        }
+
+        RankedCrops ranked = new RankedCrops(catalog, Math.min(Math.max(limit, 0), size));
+        long lastWordMask = (size & 63) == 0 ? -1L : (1L << (size & 63)) - 1;
+        for (int score = CropRangeSnapshot.FACTORS; score >= 0 && !ranked.isFull(); score--) {
+            for (int w = 0; w < words && !ranked.isFull(); w++) {
+                long level = ((score & 1) != 0 ? ones[w] : ~ones[w])
+                        & ((score & 2) != 0 ? twos[w] : ~twos[w])
+                        & ((score & 4) != 0 ? fours[w] : ~fours[w]);
+                if (w == words - 1) {
+                    level &= lastWordMask;
+                }
+                while (level != 0 && !ranked.isFull()) {
+                    ranked.add((w << 6) + Long.numberOfTrailingZeros(level), score);
+                    level &= level - 1;
+                }
+            }
+        }
+        return ranked;
+    }
+
+    private final class Dimension {
+        private final double[] sortedMins;
+        private final int[] byMin;
+        private final double[] sortedMaxsDesc;
+        private final int[] byMaxDesc;
+        private final long[][] minCheckpoints;
+        private final long[][] maxCheckpoints;
+
+        Dimension(double[] mins, double[] maxs) {
+            byMin = sortedOrder(mins, false);
+            byMaxDesc = sortedOrder(maxs, true);
+            sortedMins = new double[size];
+            sortedMaxsDesc = new double[size];
+            for (int i = 0; i < size; i++) {
+                sortedMins[i] = mins[byMin[i]];
+                sortedMaxsDesc[i] = maxs[byMaxDesc[i]];
+            }
+            minCheckpoints = checkpoints(byMin);
+            maxCheckpoints = checkpoints(byMaxDesc);
+        }
+
+        /** Bitset of crops whose range minimum is &lt;= value. */
+        void minAtMost(double value, long[] out) {
+            int count = 0;
+            if (!Double.isNaN(value)) {
+                int lo = 0, hi = size;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (sortedMins[mid] <= value) lo = mid + 1; else hi = mid;
+                }
+                count = lo;
+            }
+            prefix(byMin, minCheckpoints, count, out);
+        }
+
+        /** Bitset of crops whose range maximum is &gt;= value. */
+        void maxAtLeast(double value, long[] out) {
+            int count = 0;
+            if (!Double.isNaN(value)) {
+                int lo = 0, hi = size;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (sortedMaxsDesc[mid] >= value) lo = mid + 1; else hi = mid;
+                }
+                count = lo;
+            }
+            prefix(byMaxDesc, maxCheckpoints, count, out);
+        }
+
+        private void prefix(int[] order, long[][] checkpoints, int count, long[] out) {
+            int checkpoint = count / stride;
+            System.arraycopy(checkpoints[checkpoint], 0, out, 0, words);
+            for (int i = checkpoint * stride; i < count; i++) {
+                int crop = order[i];
+                out[crop >>> 6] |= 1L << crop;
+            }
+        }
+
+        private long[][] checkpoints(int[] order) {
+            long[][] result = new long[size / stride + 1][];
+            long[] running = new long[words];
+            result[0] = running.clone();
+            for (int i = 0; i < size; i++) {
+                int crop = order[i];
+                running[crop >>> 6] |= 1L << crop;
+                if ((i + 1) % stride == 0) {
+                    result[(i + 1) / stride] = running.clone();
+                }
+            }
+            return result;
+        }
+    }
+
+    private static int[] sortedOrder(double[] keys, boolean descending) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> descending ? Double.compare(keys[b], keys[a]) : Double.compare(keys[a], keys[b]));
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+}
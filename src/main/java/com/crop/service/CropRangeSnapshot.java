@@ -0,0 +1,180 @@
+package com.crop.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, array-backed copy of every crop's ideal N, P, K, pH and rainfall ranges.
+ * Crops are held in id order, so index i always refers to the same crop within one snapshot.
+ * Large catalogs also carry a {@link CropRangeIndex} built once at load time.
+ */
+public final class CropRangeSnapshot {
+
+    public static final int FACTORS = 5;
+
+    private final long version;
+    private final long[] ids;
+    private final String[] names;
+    private final double[] nMin;
+    private final double[] nMax;
+    private final double[] pMin;
+    private final double[] pMax;
+    private final double[] kMin;
+    private final double[] kMax;
+    private final double[] phMin;
+    private final double[] phMax;
+    private final double[] rainMin;
+    private final double[] rainMax;
+    private final double[][] breakpoints = new double[FACTORS][];
+    private CropRangeIndex index;
+
+    private CropRangeSnapshot(long version, int size) {
+        this.version = version;
+        this.ids = new long[size];
+        this.names = new String[size];
+        this.nMin = new double[size];
+        this.nMax = new double[size];
+        this.pMin = new double[size];
+        this.pMax = new double[size];
+        this.kMin = new double[size];
+        this.kMax = new double[size];
+        this.phMin = new double[size];
+        this.phMax = new double[size];
+        this.rainMin = new double[size];
+        this.rainMax = new double[size];
+    }
+
+    /**
+     * Build from rows shaped like {@code CropRepository.findAllIdealRanges()}:
+     * id, name, then min/max pairs for N, P, K, pH and rainfall.
+     * An interval index is built when there are at least {@code indexThreshold} crops.
+     */
+    public static CropRangeSnapshot fromRows(long version, List<Object[]> rows, int indexThreshold) {
+        CropRangeSnapshot s = new CropRangeSnapshot(version, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            s.ids[i] = ((Number) row[0]).longValue();
+            s.names[i] = (String) row[1];
+            s.nMin[i] = ((Number) row[2]).doubleValue();
+            s.nMax[i] = ((Number) row[3]).doubleValue();
+            s.pMin[i] = ((Number) row[4]).doubleValue();
+            s.pMax[i] = ((Number) row[5]).doubleValue();
+            s.kMin[i] = ((Number) row[6]).doubleValue();
+            s.kMax[i] = ((Number) row[7]).doubleValue();
+            s.phMin[i] = ((Number) row[8]).doubleValue();
+            s.phMax[i] = ((Number) row[9]).doubleValue();
+            s.rainMin[i] = ((Number) row[10]).doubleValue();
+            s.rainMax[i] = ((Number) row[11]).doubleValue();
+        }
+        for (int d = 0; d < FACTORS; d++) {
+            s.breakpoints[d] = distinctSorted(s.lower(d), s.upper(d));
+        }
+        if (s.size() > 0 && s.size() >= indexThreshold) {
+            s.index = CropRangeIndex.build(s);
+        }
+        return s;
+    }
+
+    public static CropRangeSnapshot empty() {
+        return new CropRangeSnapshot(0L, 0);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * Interval index, or null when the catalog is below the index threshold.
+     */
+    public CropRangeIndex index() {
+        return index;
+    }
+
+    public long cropId(int index) {
+        return ids[index];
+    }
+
+    public String cropName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Number of the five criteria (N, P, K, pH, rainfall) that fall inside crop {@code index}'s ideal range.
+     */
+    public int matchCount(int index, double nitrogen, double phosphorus, double potassium, double ph, double rainfall) {
+        int factors = 0;
+        if (inRange(nitrogen, nMin[index], nMax[index])) factors++;
+        if (inRange(phosphorus, pMin[index], pMax[index])) factors++;
+        if (inRange(potassium, kMin[index], kMax[index])) factors++;
+        if (inRange(ph, phMin[index], phMax[index])) factors++;
+        if (inRange(rainfall, rainMin[index], rainMax[index])) factors++;
+        return factors;
+    }
+
+    /**
+     * Bucket of {@code value} among all crop range endpoints of one dimension: even buckets are the
+     * open gaps between endpoints, odd buckets are the endpoints themselves. Two values in the same
+     * bucket are inside exactly the same crop ranges, so they score identically.
+     */
+    public int bucket(int dimension, double value) {
+        if (Double.isNaN(value)) {
+            return -1;
+        }
+        int pos = Arrays.binarySearch(breakpoints[dimension], value);
+        return pos >= 0 ? 2 * pos + 1 : 2 * (-pos - 1);
+    }
+
+    private static double[] distinctSorted(double[] mins, double[] maxs) {
+        double[] all = new double[mins.length + maxs.length];
+        System.arraycopy(mins, 0, all, 0, mins.length);
+        System.arraycopy(maxs, 0, all, mins.length, maxs.length);
+        Arrays.sort(all);
+        int n = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (n == 0 || all[i] != all[n - 1]) {
+                all[n++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, n);
+    }
+
+    /** Range minimums for dimension d (0=N, 1=P, 2=K, 3=pH, 4=rainfall), indexed like the snapshot. */
+    double[] lower(int dimension) {
+        return switch (dimension) {
+            case 0 -> nMin;
+            case 1 -> pMin;
+            case 2 -> kMin;
+            case 3 -> phMin;
+            case 4 -> rainMin;
+            default -> throw new IllegalArgumentException("Unknown dimension: " + dimension);
+        };
+    }
+
+    /** Range maximums for dimension d, same numbering as {@link #lower(int)}. */
+    double[] upper(int dimension) {
+        return switch (dimension) {
+            case 0 -> nMax;
+            case 1 -> pMax;
+            case 2 -> kMax;
+            case 3 -> phMax;
+            case 4 -> rainMax;
+            default -> throw new IllegalArgumentException("Unknown dimension: " + dimension);
+        };
+    }
+
+    public static double confidence(int factors) {
+        return factors == 0 ? 0.0 : ((double) factors / FACTORS) * 100.0;
+    }
+
+    private static boolean inRange(double value, double min, double max) {
+        return value >= min && value <= max;
+    }
+}
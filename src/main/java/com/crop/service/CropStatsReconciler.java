@@ -0,0 +1,51 @@
+package com.crop.service;
+
+import com.crop.repository.CropStatsRepository;
+import com.crop.repository.CropStatsRepository.Totals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Periodically compares the crop rollup with the recommendations table and repairs drift
+ * (cascaded deletes, rows loaded outside the application, an empty rollup after an upgrade).
+ *
+ * <p>The comparison is an unlocked snapshot, so concurrent inserts can make a crop look wrong;
+ * each suspect crop is then rechecked under its rollup row lock before anything is written.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CropStatsReconciler {
+
+    private final CropStatsRepository cropStatsRepository;
+
+    @Scheduled(initialDelayString = "${crop.stats.reconcile.initial-delay-ms:0}",
+            fixedDelayString = "${crop.stats.reconcile.interval-ms:3600000}")
+    public void reconcile() {
+        Map<Long, Totals> actual = cropStatsRepository.aggregateRecommendations();
+        Map<Long, Totals> stored = cropStatsRepository.findAllTotals();
+
+        Set<Long> suspects = new HashSet<>(stored.keySet());
+        suspects.addAll(actual.keySet());
+        suspects.removeIf(cropId -> actual.containsKey(cropId) && stored.containsKey(cropId)
+                && stored.get(cropId).matches(actual.get(cropId)));
+
+        int repaired = 0;
+        for (long cropId : suspects) {
+            if (cropStatsRepository.reconcile(cropId)) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            log.info("Crop stats reconciled: {} of {} crops repaired", repaired, actual.size());
+        } else {
+            log.debug("Crop stats reconciled: {} crops, no drift", actual.size());
+        }
+    }
+}
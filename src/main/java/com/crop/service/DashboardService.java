@@ -1,5 +1,9 @@
 package com.crop.service;
 
+import com.crop.exception.BadRequestException;
+import com.crop.repository.ChartSeriesRepository;
+import com.crop.repository.CropStatsRepository;
+import com.crop.repository.CropStatsRepository.CropStats;
 import com.crop.repository.RecommendationRepository;
 import com.crop.repository.SoilDataRepository;
 import com.crop.repository.WeatherDataRepository;
@@ -8,6 +12,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +20,8 @@ import java.util.stream.Collectors;
 
 /**
  * Aggregates data for dashboard charts: NPK trends, top crops, rainfall.
+ * Without a time range the charts show the latest 20 readings; with one, readings are streamed
+ * once and downsampled to a fixed number of points ({@link TimeSeriesDownsampler}).
  */
 @Service
 @RequiredArgsConstructor
@@ -23,6 +30,11 @@ public class DashboardService {
     private final SoilDataRepository soilDataRepository;
     private final RecommendationRepository recommendationRepository;
     private final WeatherDataRepository weatherDataRepository;
+    private final CropStatsRepository cropStatsRepository;
+    private final ChartSeriesRepository chartSeriesRepository;
+    private final LocationResolver locationResolver;
+
+    static final int MAX_CHART_POINTS = 500;
 
     @Transactional(readOnly = true)
     public Map<String, Object> getFarmerDashboard(Long userId) {
@@ -40,12 +52,33 @@ public class DashboardService {
         return model;
     }
 
+    /**
+     * Farmer NPK charts over [from, to), downsampled to at most {@code points} buckets.
+     */
     @Transactional(readOnly = true)
+    public Map<String, Object> getFarmerDashboard(Long userId, LocalDateTime from, LocalDateTime to, int points) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        TimeSeriesDownsampler sampler = new TimeSeriesDownsampler(from, end, chartPoints(from, end, points), 3);
+        double[] values = new double[3];
+        chartSeriesRepository.streamSoil(userId, from, end, rs -> {
+            values[0] = rs.getDouble(2);
+            values[1] = rs.getDouble(3);
+            values[2] = rs.getDouble(4);
+            sampler.add(rs.getTimestamp(1), values);
+        });
+        Map<String, Object> model = sampler.toModel("npkLabels", "nitrogen", "phosphorus", "potassium");
+        model.put("recommendations", recommendationRepository.findByUserIdWithCrop(userId, PageRequest.of(0, 10)));
+        return model;
+    }
+
+    /**
+     * Top crops come from the per-crop rollup, so the cost does not grow with recommendation history.
+     */
     public Map<String, Object> getAdminDashboard() {
         Map<String, Object> model = new HashMap<>();
-        var topCrops = recommendationRepository.countRecommendationsByCropName(PageRequest.of(0, 10));
-        model.put("topCropNames", topCrops.stream().map(o -> (String) o[0]).collect(Collectors.toList()));
-        model.put("topCropCounts", topCrops.stream().map(o -> ((Number) o[1]).longValue()).collect(Collectors.toList()));
+        var topCrops = cropStatsRepository.findTop(10);
+        model.put("topCropNames", topCrops.stream().map(CropStats::cropName).collect(Collectors.toList()));
+        model.put("topCropCounts", topCrops.stream().map(CropStats::count).collect(Collectors.toList()));
         return model;
     }
 
@@ -53,7 +86,7 @@ public class DashboardService {
     public Map<String, Object> getOfficerDashboard(String location) {
         Map<String, Object> model = new HashMap<>();
         var weatherList = location != null && !location.isBlank()
-                ? weatherDataRepository.findByLocationOrderByRecordedDateDesc(location, PageRequest.of(0, 20))
+                ? weatherDataRepository.findByLocationOrderByRecordedDateDesc(locationResolver.keyFor(location), PageRequest.of(0, 20))
                 : weatherDataRepository.findAll(PageRequest.of(0, 20)).getContent();
         model.put("rainfallLabels", weatherList.stream()
                 .map(w -> w.getRecordedDate().toString().substring(0, 16))
@@ -62,4 +95,35 @@ public class DashboardService {
         model.put("temperature", weatherList.stream().map(w -> w.getTemperature()).collect(Collectors.toList()));
         return model;
     }
+
+    /**
+     * Officer rainfall/temperature charts over [from, to), downsampled to at most {@code points}
+     * buckets; all locations are pooled when none is given. Older ranges are served from the
+     * hourly and daily weather aggregates once raw readings have been compacted.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOfficerDashboard(String location, LocalDateTime from, LocalDateTime to, int points) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        TimeSeriesDownsampler sampler = new TimeSeriesDownsampler(from, end, chartPoints(from, end, points), 2);
+        double[] sums = new double[2];
+        double[] lows = new double[2];
+        double[] highs = new double[2];
+        String where = location != null && !location.isBlank() ? locationResolver.keyFor(location) : null;
+        chartSeriesRepository.streamWeather(where, from, end, rs -> {
+            for (int s = 0; s < 2; s++) {
+                sums[s] = rs.getDouble(3 + 3 * s);
+                lows[s] = rs.getDouble(4 + 3 * s);
+                highs[s] = rs.getDouble(5 + 3 * s);
+            }
+            sampler.add(rs.getTimestamp(1), rs.getLong(2), sums, lows, highs);
+        });
+        return sampler.toModel("rainfallLabels", "rainfall", "temperature");
+    }
+
+    private static int chartPoints(LocalDateTime from, LocalDateTime to, int points) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        return Math.min(Math.max(points, 1), MAX_CHART_POINTS);
+    }
 }
@@ -0,0 +1,172 @@
+package com.crop.service;
+
+import com.crop.service.StreamFormat.RowWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams table exports as CSV or NDJSON straight from a forward-only JDBC cursor.
+ *
+ * <p>Rows are written as they are fetched ({@code export.fetch-size} at a time), so heap use does
+ * not depend on the export size. Each export is a single auto-committed SELECT outside any Spring
+ * transaction: the connection is held while rows stream, but no transaction stays open. On MySQL,
+ * a positive fetch size only streams with {@code useCursorFetch=true} on the JDBC URL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final Column[] RECOMMENDATION_COLUMNS = {
+            new Column("id", Kind.LONG),
+            new Column("recommendation_date", Kind.TIMESTAMP),
+            new Column("user_name", Kind.STRING),
+            new Column("crop_name", Kind.STRING),
+            new Column("confidence_score", Kind.DOUBLE)
+    };
+
+    private static final Column[] SOIL_COLUMNS = {
+            new Column("id", Kind.LONG),
+            new Column("recorded_date", Kind.TIMESTAMP),
+            new Column("nitrogen", Kind.DOUBLE),
+            new Column("phosphorus", Kind.DOUBLE),
+            new Column("potassium", Kind.DOUBLE),
+            new Column("ph", Kind.DOUBLE),
+            new Column("moisture", Kind.DOUBLE)
+    };
+
+    private static final Column[] WEATHER_COLUMNS = {
+            new Column("id", Kind.LONG),
+            new Column("recorded_date", Kind.TIMESTAMP),
+            new Column("location", Kind.STRING),
+            new Column("temperature", Kind.DOUBLE),
+            new Column("humidity", Kind.DOUBLE),
+            new Column("rainfall", Kind.DOUBLE)
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocationResolver locationResolver;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    private enum Kind { LONG, DOUBLE, STRING, TIMESTAMP }
+
+    private record Column(String name, Kind kind) {
+
+        static StreamFormat.Column[] names(Column[] columns) {
+            StreamFormat.Column[] names = new StreamFormat.Column[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                names[i] = StreamFormat.Column.of(columns[i].name());
+            }
+            return names;
+        }
+    }
+
+    /** The user's recommendations with user and crop names, oldest first. Returns rows written. */
+    public long exportRecommendations(long userId, OutputStream out, StreamFormat format) throws IOException {
+        return export("SELECT r.id, r.recommendation_date, u.name, c.crop_name, r.confidence_score "
+                        + "FROM recommendations r JOIN app_users u ON u.id = r.user_id JOIN crops c ON c.id = r.crop_id "
+                        + "WHERE r.user_id = ? ORDER BY r.recommendation_date, r.id",
+                RECOMMENDATION_COLUMNS, out, format, userId);
+    }
+
+    /** The user's soil readings, oldest first. Returns rows written. */
+    public long exportSoil(long userId, OutputStream out, StreamFormat format) throws IOException {
+        return export("SELECT id, recorded_date, nitrogen, phosphorus, potassium, ph, moisture FROM soil_data "
+                        + "WHERE user_id = ? ORDER BY recorded_date, id",
+                SOIL_COLUMNS, out, format, userId);
+    }
+
+    /** Stored weather, oldest first, for one location (by canonical key) or all. Returns rows written. */
+    public long exportWeather(String location, OutputStream out, StreamFormat format) throws IOException {
+        if (location == null || location.isBlank()) {
+            return export("SELECT id, recorded_date, location, temperature, humidity, rainfall FROM weather_data "
+                    + "ORDER BY recorded_date, id", WEATHER_COLUMNS, out, format);
+        }
+        return export("SELECT id, recorded_date, location, temperature, humidity, rainfall FROM weather_data "
+                + "WHERE location = ? ORDER BY recorded_date, id", WEATHER_COLUMNS, out, format, locationResolver.keyFor(location));
+    }
+
+    private long export(String sql, Column[] columns, OutputStream out, StreamFormat format, Object... args) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rows = format.open(writer, objectMapper, Column.names(columns));
+        rows.start();
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 1, args[i]);
+                }
+                return ps;
+            }, rs -> {
+                try {
+                    writeRow(rows, columns, rs);
+                    if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                        rows.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading and release the connection.
+            throw e.getCause();
+        }
+        rows.flush();
+        log.info("Export streamed: rows={}, format={}", count[0], format);
+        return count[0];
+    }
+
+    private static void writeRow(RowWriter rows, Column[] columns, ResultSet rs) throws SQLException, IOException {
+        rows.startRow();
+        for (int i = 0; i < columns.length; i++) {
+            switch (columns[i].kind()) {
+                case LONG -> {
+                    long v = rs.getLong(i + 1);
+                    if (rs.wasNull()) {
+                        rows.nullValue();
+                    } else {
+                        rows.value(v);
+                    }
+                }
+                case DOUBLE -> {
+                    double v = rs.getDouble(i + 1);
+                    if (rs.wasNull()) {
+                        rows.nullValue();
+                    } else {
+                        rows.value(v);
+                    }
+                }
+                case STRING -> rows.value(rs.getString(i + 1));
+                case TIMESTAMP -> rows.value(timestamp(rs.getTimestamp(i + 1)));
+            }
+        }
+        rows.endRow();
+    }
+
+    private static String timestamp(Timestamp ts) {
+        return ts == null ? "" : ts.toLocalDateTime().toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.crop.service;
+
+import com.crop.dto.CursorPage;
+import com.crop.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a newest-first history listing: the (date, id) of the last row returned.
+ *
+ * <p>The next page is every row strictly older than this key, with id breaking ties between equal
+ * timestamps, so no row is returned twice and rows inserted while a client is paging do not shift
+ * later pages. Such a row is returned only if it sorts behind the cursor. One that sorts ahead of
+ * it is not returned until the client starts again from the first page. That covers new rows and
+ * also back-dated ones (a bulk soil upload with an older {@code recordedDate}) that land in the
+ * range already walked. Tokens are opaque to clients (base64url of the key).
+ */
+record HistoryCursor(LocalDateTime date, long id) {
+
+    static final int MAX_LIMIT = 100;
+
+    String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decode a client-supplied token; null or blank means the first page. */
+    static HistoryCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    static int clampLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    /**
+     * Build a page from up to {@code limit + 1} rows: the extra row only signals that more exist.
+     */
+    static <T> CursorPage<T> page(List<T> rows, int limit, Function<T, HistoryCursor> key) {
+        if (rows.size() <= limit) {
+            return CursorPage.<T>builder().items(rows).build();
+        }
+        List<T> items = rows.subList(0, limit);
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(key.apply(items.get(limit - 1)).encode())
+                .build();
+    }
+}
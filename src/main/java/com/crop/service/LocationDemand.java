@@ -0,0 +1,78 @@
+package com.crop.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exponentially decayed request counts per weather location, fed by successful
+ * {@link WeatherCache} reads (recommendations and {@code /api/weather/current}).
+ *
+ * <p>Recording is a map lookup and an adder increment. Scores are only folded and decayed when
+ * {@link #rank} runs, from the single prefetch thread. At most
+ * {@code weather.prefetch.tracked-locations} locations are tracked; new ones are ignored while
+ * the table is full, until decay prunes cold entries.
+ */
+@Component
+public class LocationDemand {
+
+    private static final double PRUNE_BELOW = 0.05;
+
+    @Value("${weather.prefetch.tracked-locations:1000}")
+    private int maxTracked;
+
+    private final Map<String, Tally> tallies = new ConcurrentHashMap<>();
+
+    private static final class Tally {
+        final String location;
+        final LongAdder recent = new LongAdder();
+        double score;
+
+        Tally(String location) {
+            this.location = location;
+        }
+    }
+
+    /** A location with its decayed request count. */
+    public record Hot(String location, double score) {
+    }
+
+    /** Count one request; {@code key} is the cache key, {@code location} the name as requested. */
+    void record(String key, String location) {
+        Tally tally = tallies.get(key);
+        if (tally == null) {
+            if (key.isEmpty() || tallies.size() >= maxTracked) {
+                return;
+            }
+            tally = tallies.computeIfAbsent(key, k -> new Tally(location));
+        }
+        tally.recent.increment();
+    }
+
+    /**
+     * Decay every score by {@code decay}, add the requests since the last call, and return the
+     * locations scoring at least {@code minScore}, hottest first, at most {@code limit}.
+     */
+    List<Hot> rank(double decay, double minScore, int limit) {
+        List<Hot> hot = new ArrayList<>();
+        tallies.values().removeIf(tally -> {
+            tally.score = tally.score * decay + tally.recent.sumThenReset();
+            if (tally.score >= minScore) {
+                hot.add(new Hot(tally.location, tally.score));
+            }
+            return tally.score < PRUNE_BELOW;
+        });
+        hot.sort(Comparator.comparingDouble(Hot::score).reversed());
+        return hot.size() > limit ? hot.subList(0, limit) : hot;
+    }
+
+    int size() {
+        return tallies.size();
+    }
+}
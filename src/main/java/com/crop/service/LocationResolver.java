@@ -0,0 +1,180 @@
+package com.crop.service;
+
+import com.crop.dto.OpenWeatherPayload;
+import com.crop.repository.LocationAliasRepository;
+import com.crop.repository.LocationAliasRepository.AliasRow;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical location keys for weather. Free text ("Pune", "pune ", "Pune, IN") is normalized to an
+ * alias; once OpenWeather has resolved an alias to a city, the alias maps to that city's id and
+ * canonical key ("Pune,IN"). Weather is then fetched by city id and cached and stored under the
+ * key, so spellings of one city share one cache entry, one OpenWeather call and one set of rows.
+ *
+ * <p>The {@code location_aliases} table gains a row for every distinct spelling OpenWeather
+ * resolves and is never pruned. Only the {@code location.aliases.max-entries} most recently used
+ * aliases and cities are held in memory, as bounded LRU maps; the newest rows are loaded at startup.
+ * A lookup that misses memory reads the alias row and keeps it, so only text not seen recently
+ * touches the database. A new alias is written when it is first resolved. Text that has not been
+ * resolved yet is used as typed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationResolver {
+
+    private static final Pattern AROUND_COMMA = Pattern.compile("\\s*,\\s*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_ALIAS_LENGTH = 255;
+
+    private final LocationAliasRepository locationAliasRepository;
+
+    @Value("${location.aliases.max-entries:10000}")
+    private int maxEntries;
+
+    private Map<String, Canonical> byAlias;
+    private Map<Long, Canonical> byCity;
+
+    /** An OpenWeather city and the key its weather is stored under. */
+    public record Canonical(long cityId, String key) {
+    }
+
+    @PostConstruct
+    void start() {
+        byAlias = lru(maxEntries);
+        byCity = lru(maxEntries);
+    }
+
+    private static <K> Map<K, Canonical> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<K, Canonical>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Canonical> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            // Newest first from the database; remembered oldest first so the newest are most recent.
+            List<AliasRow> rows = locationAliasRepository.findNewest(maxEntries);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                remember(rows.get(i).alias(), canonical(rows.get(i)));
+            }
+            log.info("Location aliases loaded: {} aliases for {} cities", byAlias.size(), byCity.size());
+        } catch (Exception e) {
+            log.warn("Location alias load failed (aliases resolve again on first fetch): {}", e.getMessage());
+        }
+    }
+
+    /** Trimmed, single-spaced, no spaces around commas, lower case. */
+    public static String normalize(String location) {
+        String trimmed = WHITESPACE.matcher(location.trim()).replaceAll(" ");
+        return AROUND_COMMA.matcher(trimmed).replaceAll(",").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The city this text is known to resolve to, if any. Read from the alias table on a memory miss;
+     * if that read fails, the text is treated as unresolved.
+     */
+    public Optional<Canonical> find(String location) {
+        String alias = normalize(location);
+        Canonical known = byAlias.get(alias);
+        if (known != null) {
+            return Optional.of(known);
+        }
+        if (alias.isEmpty() || alias.length() > MAX_ALIAS_LENGTH) {
+            return Optional.empty();
+        }
+        try {
+            Optional<Canonical> stored = locationAliasRepository.find(alias).map(LocationResolver::canonical);
+            stored.ifPresent(canonical -> remember(alias, canonical));
+            return stored;
+        } catch (DataAccessException e) {
+            log.debug("Location alias lookup failed for '{}': {}", alias, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Canonical key for filtering stored weather; unresolved text is returned trimmed. */
+    public String keyFor(String location) {
+        return find(location).map(Canonical::key).orElseGet(location::trim);
+    }
+
+    /**
+     * Record that {@code location} resolved to the city in {@code payload} and return the city's
+     * canonical form. A city keeps the key it was first given; a new city gets "Name,CC", suffixed
+     * with its id if another city already has that key. The text and the key itself are both stored
+     * as aliases. Writes to the database; empty if the payload does not identify a city.
+     */
+    public Optional<Canonical> register(String location, OpenWeatherPayload payload) {
+        if (payload.id() == null || payload.name() == null || payload.name().isBlank()) {
+            return Optional.empty();
+        }
+        long cityId = payload.id();
+        Canonical canonical = byCity.get(cityId);
+        if (canonical == null) {
+            canonical = locationAliasRepository.findFirstByCity(cityId)
+                    .map(LocationResolver::canonical)
+                    .orElseGet(() -> new Canonical(cityId, newKey(cityId, payload)));
+        }
+        canonical = store(normalize(location), canonical);
+        store(normalize(canonical.key()), canonical);
+        return Optional.of(canonical);
+    }
+
+    private String newKey(long cityId, OpenWeatherPayload payload) {
+        String country = payload.country();
+        String key = country == null || country.isBlank()
+                ? payload.name().trim()
+                : payload.name().trim() + "," + country.trim();
+        // Every key is also stored as an alias of its city, so its alias row shows who holds it.
+        boolean taken = locationAliasRepository.find(normalize(key))
+                .filter(row -> row.cityId() != cityId)
+                .isPresent();
+        return taken ? key + "#" + cityId : key;
+    }
+
+    /** Store an alias unless known; if another writer stored it first, its mapping wins. */
+    private Canonical store(String alias, Canonical canonical) {
+        Canonical known = byAlias.get(alias);
+        if (known != null) {
+            return known;
+        }
+        if (alias.isEmpty() || alias.length() > MAX_ALIAS_LENGTH) {
+            return canonical;
+        }
+        if (!locationAliasRepository.insert(new AliasRow(alias, canonical.cityId(), canonical.key()))) {
+            canonical = locationAliasRepository.find(alias)
+                    .map(LocationResolver::canonical)
+                    .orElse(canonical);
+        }
+        remember(alias, canonical);
+        return canonical;
+    }
+
+    private void remember(String alias, Canonical canonical) {
+        byAlias.put(alias, canonical);
+        byCity.putIfAbsent(canonical.cityId(), canonical);
+    }
+
+    private static Canonical canonical(AliasRow row) {
+        return new Canonical(row.cityId(), row.locationKey());
+    }
+}
@@ -0,0 +1,57 @@
+package com.crop.service;
+
+/**
+ * Scoring result: snapshot indices of the best crops, best first, with their match counts.
+ * Ordering is by match count descending, then by catalog (crop id) order ascending.
+ */
+public final class RankedCrops {
+
+    private final CropRangeSnapshot catalog;
+    private final int[] indices;
+    private final int[] factors;
+    private int size;
+
+    RankedCrops(CropRangeSnapshot catalog, int capacity) {
+        this.catalog = catalog;
+        this.indices = new int[capacity];
+        this.factors = new int[capacity];
+    }
+
+    void add(int index, int matchCount) {
+        indices[size] = index;
+        factors[size] = matchCount;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == indices.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int index(int rank) {
+        return indices[rank];
+    }
+
+    public int factors(int rank) {
+        return factors[rank];
+    }
+
+    public long cropId(int rank) {
+        return catalog.cropId(indices[rank]);
+    }
+
+    public String cropName(int rank) {
+        return catalog.cropName(indices[rank]);
+    }
+
+    public double confidence(int rank) {
+        return CropRangeSnapshot.confidence(factors[rank]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.crop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of ranking results, keyed by a soil/rainfall signature.
+ *
+ * <p>Each input is reduced to its bucket among the catalog's crop range endpoints
+ * ({@link CropRangeSnapshot#bucket}). Samples with the same buckets fall inside the same crop
+ * ranges, so they rank identically and a cached result is exact, not approximate. The key also
+ * carries the snapshot version; when the catalog is reloaded the whole cache is dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommendationResultCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${recommendation.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommendation.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private Map<Key, RankedCrops> entries;
+    private long cachedVersion;
+    private Counter hits;
+    private Counter misses;
+
+    record Key(long version, int nitrogen, int phosphorus, int potassium, int ph, int rainfall, int limit) {
+    }
+
+    @PostConstruct
+    void start() {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RankedCrops> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        hits = requestCounter("hit");
+        misses = requestCounter("miss");
+        Gauge.builder("recommendation.cache.size", this, RecommendationResultCache::size)
+                .description("Cached recommendation rankings")
+                .register(meterRegistry);
+    }
+
+    private Counter requestCounter(String result) {
+        return Counter.builder("recommendation.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled && maxEntries > 0;
+    }
+
+    /**
+     * Signature of one scoring request. {@code limit} is clamped to the catalog size so
+     * "top 50" and "top 100" share an entry on small catalogs.
+     */
+    Key key(CropRangeSnapshot catalog, double nitrogen, double phosphorus, double potassium,
+            double ph, double rainfall, int limit) {
+        return new Key(catalog.version(),
+                catalog.bucket(0, nitrogen),
+                catalog.bucket(1, phosphorus),
+                catalog.bucket(2, potassium),
+                catalog.bucket(3, ph),
+                catalog.bucket(4, rainfall),
+                Math.min(Math.max(limit, 0), catalog.size()));
+    }
+
+    RankedCrops get(Key key) {
+        RankedCrops ranked;
+        synchronized (this) {
+            evictIfStale(key.version());
+            ranked = entries.get(key);
+        }
+        (ranked != null ? hits : misses).increment();
+        return ranked;
+    }
+
+    synchronized void put(Key key, RankedCrops ranked) {
+        evictIfStale(key.version());
+        // A result computed against an older snapshot must not repopulate the cache.
+        if (key.version() == cachedVersion) {
+            entries.put(key, ranked);
+        }
+    }
+
+    private void evictIfStale(long version) {
+        if (version > cachedVersion) {
+            entries.clear();
+            cachedVersion = version;
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
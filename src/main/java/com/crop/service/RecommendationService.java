@@ -1,23 +1,35 @@
 package com.crop.service;
 
+import com.crop.dto.BatchRecommendationResponse;
+import com.crop.dto.CursorPage;
+import com.crop.dto.RecommendationHistoryItem;
 import com.crop.dto.RecommendationRequest;
 import com.crop.dto.RecommendationResponse;
 import com.crop.dto.SoilDataRequest;
-import com.crop.entity.Crop;
-import com.crop.entity.Recommendation;
-import com.crop.entity.User;
-import com.crop.repository.CropRepository;
+import com.crop.entity.WeatherData;
+import com.crop.exception.WeatherUnavailableException;
+import com.crop.repository.RecommendationBatchRepository;
+import com.crop.repository.RecommendationBatchRepository.RecommendationRow;
 import com.crop.repository.RecommendationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 import com.crop.dto.MultipleRecommendationResponse;
 import com.crop.dto.MultipleRecommendationResponse.CropRecommendation;
@@ -25,43 +37,86 @@ import com.crop.dto.MultipleRecommendationResponse.CropRecommendation;
 /**
  * Rule-based crop recommendation: match soil (and optional weather) to crop ideal ranges.
  * Score = how many criteria fall within range; best match is returned and saved.
+ * Crop ranges come from the in-memory {@link CropCatalog}, so scoring never reads the crops table.
+ * Large catalogs are scored through their {@link CropRangeIndex}; small ones by a full scan.
+ * Repeated soil signatures are answered from the {@link RecommendationResultCache}.
+ * When live weather cannot be had (OpenWeather down, or its circuit open) rainfall comes from the
+ * location's last stored reading and the response is flagged {@code weatherStale}.
+ * Scoring is timed as {@code recommendation.scoring} (tagged by cache outcome) and storing the
+ * result as {@code recommendation.persist} (tagged by write mode and single or batch).
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RecommendationService {
 
-    private final CropRepository cropRepository;
+    private final CropCatalog cropCatalog;
+    private final RecommendationResultCache resultCache;
     private final RecommendationRepository recommendationRepository;
+    private final RecommendationBatchRepository recommendationBatchRepository;
+    private final RecommendationWriteBehind recommendationWriteBehind;
+    private final WeatherCache weatherCache;
     private final WeatherService weatherService;
+    private final Scheduler persistenceScheduler;
+    private final MeterRegistry meterRegistry;
+
+    private Timer scoringUncached;
+    private Timer scoringHit;
+    private Timer scoringMiss;
+    private Timer persistInsert;
+    private Timer persistQueued;
+    private Timer persistBatchInsert;
+    private Timer persistBatchQueued;
+
+    @PostConstruct
+    void registerTimers() {
+        scoringUncached = scoringTimer("off");
+        scoringHit = scoringTimer("hit");
+        scoringMiss = scoringTimer("miss");
+        persistInsert = persistTimer("insert", "single");
+        persistQueued = persistTimer("write_behind", "single");
+        persistBatchInsert = persistTimer("insert", "batch");
+        persistBatchQueued = persistTimer("write_behind", "batch");
+    }
+
+    private Timer scoringTimer(String cache) {
+        return Timer.builder("recommendation.scoring")
+                .description("Ranking one soil sample against the crop catalog")
+                .tag("cache", cache)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer persistTimer(String mode, String rows) {
+        return Timer.builder("recommendation.persist")
+                .description("Storing recommendation rows, or queueing them in write-behind mode")
+                .tag("mode", mode)
+                .tag("rows", rows)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     /**
      * Get recommendation for authenticated user. Uses location for rainfall if provided.
+     * Not transactional: the weather lookup must not hold a connection; the insert has its own.
      */
-    @Transactional
-    public RecommendationResponse getRecommendation(Long userId, User user, RecommendationRequest request) {
-        SoilDataRequest soil = request.getSoilData();
-        double nitrogen = soil.getNitrogen();
-        double phosphorus = soil.getPhosphorus();
-        double potassium = soil.getPotassium();
-        double ph = soil.getPh();
-        double rainfall = 0.0;
-
-        if (request.getLocation() != null && !request.getLocation().isBlank()) {
-            Optional<com.crop.entity.WeatherData> weather = weatherService.getLatestForLocation(request.getLocation());
-            if (weather.isPresent()) {
-                rainfall = weather.get().getRainfall();
-            } else {
-                try {
-                    rainfall = weatherService.fetchAndStoreWeather(request.getLocation()).getRainfall();
-                } catch (Exception e) {
-                    log.warn("Could not fetch weather for recommendation: {}", e.getMessage());
-                }
-            }
-        }
+    public RecommendationResponse getRecommendation(Long userId, RecommendationRequest request) {
+        return recommend(userId, request.getSoilData(), resolveRainfall(request.getLocation()));
+    }
 
-        List<Crop> crops = cropRepository.findAll();
-        if (crops.isEmpty()) {
+    /**
+     * Non-blocking variant: weather is resolved without holding a thread, then scoring and the
+     * insert run on the bounded persistence scheduler.
+     */
+    public Mono<RecommendationResponse> getRecommendationAsync(Long userId, RecommendationRequest request) {
+        return resolveRainfallAsync(request.getLocation())
+                .publishOn(persistenceScheduler)
+                .map(rainfall -> recommend(userId, request.getSoilData(), rainfall));
+    }
+
+    private RecommendationResponse recommend(Long userId, SoilDataRequest soil, Rainfall rainfall) {
+        CropRangeSnapshot catalog = cropCatalog.current();
+        if (catalog.isEmpty()) {
             return RecommendationResponse.builder()
                     .cropName("N/A")
                     .confidenceScore(0.0)
@@ -69,73 +124,33 @@ public class RecommendationService {
                     .build();
         }
 
-        List<ScoredCrop> scored = new ArrayList<>();
-        for (Crop c : crops) {
-            double score = 0.0;
-            int factors = 0;
-            if (inRange(nitrogen, c.getIdealNMin(), c.getIdealNMax())) { score += 1.0; factors++; }
-            if (inRange(phosphorus, c.getIdealPMin(), c.getIdealPMax())) { score += 1.0; factors++; }
-            if (inRange(potassium, c.getIdealKMin(), c.getIdealKMax())) { score += 1.0; factors++; }
-            if (inRange(ph, c.getIdealPhMin(), c.getIdealPhMax())) { score += 1.0; factors++; }
-            if (inRange(rainfall, c.getIdealRainfallMin(), c.getIdealRainfallMax())) { score += 1.0; factors++; }
-            int totalFactors = 5;
-            double confidence = factors == 0 ? 0.0 : (score / totalFactors) * 100.0;
-            scored.add(new ScoredCrop(c, confidence));
-        }
-
-        ScoredCrop best = scored.stream()
-                .max(Comparator.comparingDouble(s -> s.confidence))
-                .orElseThrow();
-
-        Recommendation rec = Recommendation.builder()
-                .user(user)
-                .crop(best.crop)
-                .confidenceScore(best.confidence)
-                .build();
-        rec = recommendationRepository.save(rec);
-        log.info("Recommendation saved: user={}, crop={}, score={}", userId, best.crop.getCropName(), best.confidence);
+        RankedCrops best = cachedRank(catalog, soil, rainfall.value(), 1);
+        String cropName = best.cropName(0);
+        double confidence = best.confidence(0);
+
+        Long recommendationId = persist(userId, best.cropId(0), confidence);
+        log.info("Recommendation saved: user={}, crop={}, score={}", userId, cropName, confidence);
 
         return RecommendationResponse.builder()
-                .recommendationId(rec.getId())
-                .cropName(best.crop.getCropName())
-                .confidenceScore(best.confidence)
-                .message(String.format("Best match: %s (%.1f%% confidence)", best.crop.getCropName(), best.confidence))
+                .recommendationId(recommendationId)
+                .cropName(cropName)
+                .confidenceScore(confidence)
+                .message(String.format("Best match: %s (%.1f%% confidence)", cropName, confidence))
+                .weatherStale(rainfall.stale())
+                .weatherRecordedAt(rainfall.recordedAtText())
                 .build();
     }
 
-    private boolean inRange(double value, double min, double max) {
-        return value >= min && value <= max;
-    }
-
-    private record ScoredCrop(Crop crop, double confidence) {}
-
     /**
      * Get multiple crop recommendations sorted by confidence score.
      * Uses SQL: ORDER BY confidence_score DESC LIMIT N
      */
-    public MultipleRecommendationResponse getMultipleRecommendations(Long userId, User user, RecommendationRequest request, int limit) {
+    public MultipleRecommendationResponse getMultipleRecommendations(Long userId, RecommendationRequest request, int limit) {
         SoilDataRequest soil = request.getSoilData();
-        double nitrogen = soil.getNitrogen();
-        double phosphorus = soil.getPhosphorus();
-        double potassium = soil.getPotassium();
-        double ph = soil.getPh();
-        double rainfall = 0.0;
-
-        if (request.getLocation() != null && !request.getLocation().isBlank()) {
-            Optional<com.crop.entity.WeatherData> weather = weatherService.getLatestForLocation(request.getLocation());
-            if (weather.isPresent()) {
-                rainfall = weather.get().getRainfall();
-            } else {
-                try {
-                    rainfall = weatherService.fetchAndStoreWeather(request.getLocation()).getRainfall();
-                } catch (Exception e) {
-                    log.warn("Could not fetch weather for recommendation: {}", e.getMessage());
-                }
-            }
-        }
+        Rainfall rainfall = resolveRainfall(request.getLocation());
 
-        List<Crop> crops = cropRepository.findAll();
-        if (crops.isEmpty()) {
+        CropRangeSnapshot catalog = cropCatalog.current();
+        if (catalog.isEmpty()) {
             return MultipleRecommendationResponse.builder()
                     .recommendations(List.of())
                     .totalCount(0)
@@ -143,42 +158,19 @@ public class RecommendationService {
                     .build();
         }
 
-        List<ScoredCrop> scored = new ArrayList<>();
-        for (Crop c : crops) {
-            double score = 0.0;
-            int factors = 0;
-            if (inRange(nitrogen, c.getIdealNMin(), c.getIdealNMax())) { score += 1.0; factors++; }
-            if (inRange(phosphorus, c.getIdealPMin(), c.getIdealPMax())) { score += 1.0; factors++; }
-            if (inRange(potassium, c.getIdealKMin(), c.getIdealKMax())) { score += 1.0; factors++; }
-            if (inRange(ph, c.getIdealPhMin(), c.getIdealPhMax())) { score += 1.0; factors++; }
-            if (inRange(rainfall, c.getIdealRainfallMin(), c.getIdealRainfallMax())) { score += 1.0; factors++; }
-            int totalFactors = 5;
-            double confidence = factors == 0 ? 0.0 : (score / totalFactors) * 100.0;
-            scored.add(new ScoredCrop(c, confidence));
-        }
-
-        List<ScoredCrop> topCrops = scored.stream()
-                .sorted(Comparator.comparingDouble((ScoredCrop s) -> s.confidence).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        RankedCrops topCrops = cachedRank(catalog, soil, rainfall.value(), limit);
 
         if (!topCrops.isEmpty()) {
-            Recommendation rec = Recommendation.builder()
-                    .user(user)
-                    .crop(topCrops.get(0).crop)
-                    .confidenceScore(topCrops.get(0).confidence)
-                    .build();
-            recommendationRepository.save(rec);
-            log.info("Top recommendation saved: user={}, crop={}, score={}", userId, topCrops.get(0).crop.getCropName(), topCrops.get(0).confidence);
+            persist(userId, topCrops.cropId(0), topCrops.confidence(0));
+            log.info("Top recommendation saved: user={}, crop={}, score={}", userId, topCrops.cropName(0), topCrops.confidence(0));
         }
 
         List<CropRecommendation> recommendations = new ArrayList<>();
-        int rank = 1;
-        for (ScoredCrop sc : topCrops) {
+        for (int i = 0; i < topCrops.size(); i++) {
             recommendations.add(CropRecommendation.builder()
-                    .rank(rank++)
-                    .cropName(sc.crop.getCropName())
-                    .confidenceScore(Math.round(sc.confidence * 10.0) / 10.0)
+                    .rank(i + 1)
+                    .cropName(topCrops.cropName(i))
+                    .confidenceScore(Math.round(topCrops.confidence(i) * 10.0) / 10.0)
                     .build());
         }
 
@@ -186,6 +178,231 @@ public class RecommendationService {
                 .recommendations(recommendations)
                 .totalCount(recommendations.size())
                 .message(String.format("Found %d recommended crops (Top %d)", recommendations.size(), limit))
+                .weatherStale(rainfall.stale())
+                .weatherRecordedAt(rainfall.recordedAtText())
                 .build();
     }
+
+    /**
+     * Score many samples against one catalog snapshot. Weather is resolved once per distinct
+     * location and all best matches are written in one JDBC batch, so results carry no recommendation id.
+     */
+    public BatchRecommendationResponse getBatchRecommendations(Long userId, List<RecommendationRequest> samples) {
+        CropRangeSnapshot catalog = cropCatalog.current();
+        if (catalog.isEmpty()) {
+            return BatchRecommendationResponse.builder()
+                    .results(List.of())
+                    .totalCount(0)
+                    .message("No crops in database.")
+                    .build();
+        }
+
+        Map<String, Rainfall> rainfallByLocation = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<RecommendationRow> rows = new ArrayList<>(samples.size());
+        List<RecommendationResponse> results = new ArrayList<>(samples.size());
+        for (RecommendationRequest sample : samples) {
+            String location = sample.getLocation() == null ? "" : sample.getLocation();
+            Rainfall rainfall = rainfallByLocation.computeIfAbsent(location, this::resolveRainfall);
+            RankedCrops best = cachedRank(catalog, sample.getSoilData(), rainfall.value(), 1);
+            rows.add(new RecommendationRow(userId, best.cropId(0), now, best.confidence(0)));
+            results.add(RecommendationResponse.builder()
+                    .cropName(best.cropName(0))
+                    .confidenceScore(best.confidence(0))
+                    .message(String.format("Best match: %s (%.1f%% confidence)", best.cropName(0), best.confidence(0)))
+                    .weatherStale(rainfall.stale())
+                    .weatherRecordedAt(rainfall.recordedAtText())
+                    .build());
+        }
+
+        long startNanos = System.nanoTime();
+        if (recommendationWriteBehind.isEnabled()) {
+            recommendationWriteBehind.submitAll(rows);
+            persistBatchQueued.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        } else {
+            recommendationBatchRepository.insertAll(rows);
+            persistBatchInsert.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        log.info("Batch recommendations saved: user={}, samples={}, locations={}", userId, rows.size(), rainfallByLocation.size());
+
+        return BatchRecommendationResponse.builder()
+                .results(results)
+                .totalCount(results.size())
+                .message(String.format("Scored %d samples", results.size()))
+                .build();
+    }
+
+    /**
+     * One page of the user's stored recommendations, newest first. {@code cursor} is the previous
+     * page's {@code nextCursor}, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RecommendationHistoryItem> getHistory(Long userId, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int size = HistoryCursor.clampLimit(limit);
+        PageRequest fetch = PageRequest.of(0, size + 1);
+        List<RecommendationHistoryItem> rows = after == null
+                ? recommendationRepository.findHistory(userId, fetch)
+                : recommendationRepository.findHistoryBefore(userId, after.date(), after.id(), fetch);
+        return HistoryCursor.page(rows, size, r -> new HistoryCursor(r.getRecommendationDate(), r.getId()));
+    }
+
+    /**
+     * Store the chosen crop. In write-behind mode the row is queued and no id is available yet.
+     */
+    private Long persist(Long userId, long cropId, double confidence) {
+        RecommendationRow row = new RecommendationRow(userId, cropId, LocalDateTime.now(), confidence);
+        long startNanos = System.nanoTime();
+        if (recommendationWriteBehind.isEnabled()) {
+            recommendationWriteBehind.submit(row);
+            persistQueued.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        Long id = recommendationBatchRepository.insert(row);
+        persistInsert.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return id;
+    }
+
+    RankedCrops cachedRank(CropRangeSnapshot catalog, SoilDataRequest soil, double rainfall, int limit) {
+        return cachedRank(catalog, soil.getNitrogen(), soil.getPhosphorus(), soil.getPotassium(), soil.getPh(), rainfall, limit);
+    }
+
+    /**
+     * {@link #rank} behind the result cache. Only scoring is cached; callers still persist per request.
+     */
+    RankedCrops cachedRank(CropRangeSnapshot catalog, double nitrogen, double phosphorus, double potassium,
+            double ph, double rainfall, int limit) {
+        long startNanos = System.nanoTime();
+        if (!resultCache.isEnabled()) {
+            RankedCrops ranked = rank(catalog, nitrogen, phosphorus, potassium, ph, rainfall, limit);
+            scoringUncached.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return ranked;
+        }
+        RecommendationResultCache.Key key = resultCache.key(catalog, nitrogen, phosphorus, potassium, ph, rainfall, limit);
+        RankedCrops ranked = resultCache.get(key);
+        if (ranked != null) {
+            scoringHit.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return ranked;
+        }
+        ranked = rank(catalog, nitrogen, phosphorus, potassium, ph, rainfall, limit);
+        resultCache.put(key, ranked);
+        scoringMiss.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return ranked;
+    }
+
+    /**
+     * Best {@code limit} crops for one soil sample, highest match count first, ties in catalog order.
+     * Without an index this is a single pass with a bounded heap (no per-crop allocation, no full
+     * sort); the pass ends early once {@code limit} perfect matches have been seen.
+     */
+    static RankedCrops rank(CropRangeSnapshot catalog, SoilDataRequest soil, double rainfall, int limit) {
+        return rank(catalog, soil.getNitrogen(), soil.getPhosphorus(), soil.getPotassium(), soil.getPh(), rainfall, limit);
+    }
+
+    static RankedCrops rank(CropRangeSnapshot catalog, double nitrogen, double phosphorus, double potassium,
+            double ph, double rainfall, int limit) {
+        CropRangeIndex index = catalog.index();
+        if (index != null) {
+            return index.topK(nitrogen, phosphorus, potassium, ph, rainfall, limit);
+        }
+
+        int k = Math.min(Math.max(limit, 0), catalog.size());
+        if (k == 1) {
+            return bestMatch(catalog, nitrogen, phosphorus, potassium, ph, rainfall);
+        }
+        BoundedTopK top = new BoundedTopK(k);
+        for (int i = 0; i < catalog.size() && k > 0 && !top.isSaturated(); i++) {
+            top.offer(i, catalog.matchCount(i, nitrogen, phosphorus, potassium, ph, rainfall));
+        }
+        return top.toRanked(catalog);
+    }
+
+    /**
+     * Top-1 scan: first crop with the highest match count, stopping at the first perfect match.
+     */
+    private static RankedCrops bestMatch(CropRangeSnapshot catalog, double nitrogen, double phosphorus,
+            double potassium, double ph, double rainfall) {
+        int bestIndex = 0;
+        int bestFactors = -1;
+        for (int i = 0; i < catalog.size() && bestFactors < CropRangeSnapshot.FACTORS; i++) {
+            int factors = catalog.matchCount(i, nitrogen, phosphorus, potassium, ph, rainfall);
+            if (factors > bestFactors) {
+                bestIndex = i;
+                bestFactors = factors;
+            }
+        }
+        RankedCrops ranked = new RankedCrops(catalog, 1);
+        ranked.add(bestIndex, bestFactors);
+        return ranked;
+    }
+
+    /**
+     * Rainfall used for scoring. {@code stale} is null without a location, false for current
+     * weather, and true when current weather could not be fetched: then {@code value} is the last
+     * stored reading's rainfall, or its newest rollup's mean ({@code recordedAt} set), or 0 if none
+     * is stored.
+     */
+    record Rainfall(double value, Boolean stale, LocalDateTime recordedAt) {
+
+        static final Rainfall NONE = new Rainfall(0.0, null, null);
+
+        static Rainfall current(Double rainfall) {
+            return new Rainfall(rainfall == null ? 0.0 : rainfall, false, null);
+        }
+
+        String recordedAtText() {
+            return recordedAt == null ? null : recordedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }
+
+    /**
+     * Rainfall for a location through the weather cache, falling back to the last stored reading
+     * when the fetch fails or is short-circuited ({@link WeatherCallGuard}).
+     */
+    Rainfall resolveRainfall(String location) {
+        if (location == null || location.isBlank()) {
+            return Rainfall.NONE;
+        }
+        try {
+            return Rainfall.current(weatherCache.getRainfall(location));
+        } catch (Exception e) {
+            logUnavailable(e);
+            return lastKnown(location);
+        }
+    }
+
+    Mono<Rainfall> resolveRainfallAsync(String location) {
+        if (location == null || location.isBlank()) {
+            return Mono.just(Rainfall.NONE);
+        }
+        return weatherCache.getAsync(location)
+                .map(weather -> Rainfall.current(weather.getRainfall()))
+                .onErrorResume(e -> {
+                    logUnavailable(e);
+                    return Mono.fromCallable(() -> lastKnown(location)).subscribeOn(persistenceScheduler);
+                });
+    }
+
+    /** Last stored reading of any tier and age; rainfall 0 (still stale) if there is none or it cannot be read. */
+    private Rainfall lastKnown(String location) {
+        try {
+            Optional<WeatherData> stored = weatherService.getLastKnown(location);
+            if (stored.isPresent()) {
+                WeatherData data = stored.get();
+                return new Rainfall(data.getRainfall() == null ? 0.0 : data.getRainfall(), true, data.getRecordedDate());
+            }
+        } catch (Exception e) {
+            log.warn("Could not read stored weather for {}: {}", location, e.getMessage());
+        }
+        return new Rainfall(0.0, true, null);
+    }
+
+    private static void logUnavailable(Throwable e) {
+        // An open circuit rejects every call; logging each one would flood the log.
+        if (e instanceof WeatherUnavailableException) {
+            log.debug("Weather unavailable for recommendation: {}", e.getMessage());
+        } else {
+            log.warn("Could not fetch weather for recommendation: {}", e.getMessage());
+        }
+    }
 }
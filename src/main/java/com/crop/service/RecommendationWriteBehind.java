@@ -0,0 +1,242 @@
+package com.crop.service;
+
+import com.crop.repository.RecommendationBatchRepository;
+import com.crop.repository.RecommendationBatchRepository.RecommendationRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind persistence for recommendation rows.
+ *
+ * <p>When enabled, scored results are queued and a single background writer inserts them in
+ * multi-row JDBC batches, so request latency no longer includes a MySQL INSERT. The queue is
+ * bounded: if it stays full for {@code offer-timeout-ms}, the caller writes its own row
+ * synchronously (backpressure instead of dropping). A batch that keeps failing is retried row by
+ * row, and only the rows the database refuses are dropped. On shutdown the writer drains the queue
+ * before the data source closes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationWriteBehind {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final RecommendationBatchRepository recommendationBatchRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${recommendation.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${recommendation.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${recommendation.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${recommendation.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${recommendation.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${recommendation.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<RecommendationRow> queue;
+    private Timer flushTimer;
+    private Counter writtenRows;
+    private Counter failedRows;
+    private Counter rejectedRows;
+    private Counter callerRunsRows;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("recommendation.writebehind.queue.depth", queue, BlockingQueue::size)
+                .description("Recommendation rows waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("recommendation.writebehind.flush")
+                .description("Time to write one batch of recommendation rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        writtenRows = rowCounter("written");
+        failedRows = rowCounter("failed");
+        rejectedRows = rowCounter("rejected");
+        callerRunsRows = rowCounter("caller_runs");
+
+        running = true;
+        writer = new Thread(this::runWriter, "recommendation-write-behind");
+        writer.start();
+        log.info("Recommendation write-behind enabled: capacity={}, batchSize={}", queueCapacity, batchSize);
+    }
+
+    private Counter rowCounter(String outcome) {
+        return Counter.builder("recommendation.writebehind.rows")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a row for background insert. Blocks up to {@code offer-timeout-ms} when the queue is
+     * full, then writes the row on the caller's thread.
+     */
+    public void submit(RecommendationRow row) {
+        try {
+            if (running && queue.offer(row, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        recommendationBatchRepository.insertAll(List.of(row));
+        if (enabled) {
+            callerRunsRows.increment();
+        }
+    }
+
+    public void submitAll(List<RecommendationRow> rows) {
+        for (RecommendationRow row : rows) {
+            submit(row);
+        }
+    }
+
+    private void runWriter() {
+        List<RecommendationRow> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                RecommendationRow first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutdown asked us to stop waiting; the loop condition drains what is left.
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert a batch, retrying transient failures. A batch that still fails is written row by row,
+     * so one bad row (say, a user deleted since scoring) does not cost the others.
+     */
+    private void flush(List<RecommendationRow> batch) {
+        boolean refused = false;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                flushTimer.record(() -> recommendationBatchRepository.insertAll(batch));
+                writtenRows.increment(batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // A constraint violation fails the same way on every retry.
+                log.warn("Write-behind flush rejected (rows={}): {}", batch.size(), e.getMostSpecificCause().getMessage());
+                refused = true;
+                break;
+            } catch (Exception e) {
+                log.warn("Write-behind flush failed (attempt {}/{}, rows={}): {}", attempt, MAX_ATTEMPTS, batch.size(), e.getMessage());
+                if (!backOff(attempt)) {
+                    break;
+                }
+            }
+        }
+        if (batch.size() > 1) {
+            flushRowByRow(batch);
+            return;
+        }
+        if (refused) {
+            rejectedRows.increment();
+            return;
+        }
+        failedRows.increment(batch.size());
+        log.error("Dropped {} recommendation rows after failed flush attempts", batch.size());
+    }
+
+    /**
+     * Insert each row in its own transaction. Rows the database refuses are dropped as
+     * {@code rejected}; any other failure means the database itself is unavailable, so the rest of
+     * the batch is dropped as {@code failed} instead of waiting out a timeout per row.
+     */
+    private void flushRowByRow(List<RecommendationRow> batch) {
+        int written = 0;
+        int rejected = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            RecommendationRow row = batch.get(i);
+            try {
+                recommendationBatchRepository.insertAll(List.of(row));
+                written++;
+            } catch (DataIntegrityViolationException e) {
+                rejected++;
+                log.warn("Dropped recommendation row user={} crop={}: {}", row.userId(), row.cropId(), e.getMostSpecificCause().getMessage());
+            } catch (Exception e) {
+                int dropped = batch.size() - i;
+                failedRows.increment(dropped);
+                log.error("Dropped {} recommendation rows: database unavailable ({})", dropped, e.getMessage());
+                break;
+            }
+        }
+        writtenRows.increment(written);
+        rejectedRows.increment(rejected);
+        log.info("Write-behind wrote {} of {} rows one by one after the batch failed ({} rejected)", written, batch.size(), rejected);
+    }
+
+    private static boolean backOff(int attempt) {
+        try {
+            Thread.sleep(100L * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            log.error("Write-behind did not drain within {} ms; {} rows still queued", shutdownTimeoutMs, queue.size());
+            writer.interrupt();
+            return;
+        }
+        // Rows offered while the writer was exiting.
+        List<RecommendationRow> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            flush(leftover);
+        }
+        log.info("Write-behind drained and stopped");
+    }
+}
@@ -1,5 +1,6 @@
 package com.crop.service;
 
+import com.crop.dto.CursorPage;
 import com.crop.dto.SoilDataRequest;
 import com.crop.entity.SoilData;
 import com.crop.entity.User;
@@ -41,6 +42,21 @@ public class SoilDataService {
         return soilDataRepository.findByUserIdOrderByRecordedDateDesc(userId, PageRequest.of(0, limit));
     }
 
+    /**
+     * One page of the user's soil history, newest first. {@code cursor} is the previous page's
+     * {@code nextCursor}, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SoilData> getHistory(Long userId, String cursor, int limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int size = HistoryCursor.clampLimit(limit);
+        PageRequest fetch = PageRequest.of(0, size + 1);
+        List<SoilData> rows = after == null
+                ? soilDataRepository.findHistory(userId, fetch)
+                : soilDataRepository.findHistoryBefore(userId, after.date(), after.id(), fetch);
+        return HistoryCursor.page(rows, size, s -> new HistoryCursor(s.getRecordedDate(), s.getId()));
+    }
+
     @Transactional(readOnly = true)
     public SoilData getById(Long id) {
         return soilDataRepository.findById(id)
@@ -0,0 +1,141 @@
+package com.crop.service;
+
+import com.crop.dto.BulkSoilResponse;
+import com.crop.dto.BulkSoilResponse.RowError;
+import com.crop.dto.SoilReading;
+import com.crop.exception.BadRequestException;
+import com.crop.repository.SoilDataBatchRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk soil ingestion for sensor gateways: a JSON array of {@link SoilReading}s is read element by
+ * element, each reading is validated on its own, and valid ones are written in JDBC batches of
+ * {@code soil.bulk.batch-size}, one transaction per batch. Only one batch is held in memory.
+ *
+ * <p>An invalid or mistyped reading is reported by its array index and skipped; the rest of the
+ * upload is still stored. Only the first {@value #MAX_REPORTED_ERRORS} rejected readings are listed,
+ * so a bad upload cannot grow the response without bound; {@code rejected} still counts them all.
+ * Malformed JSON ends the upload with a 400, keeping batches already committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SoilIngestService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final SoilDataBatchRepository soilDataBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${soil.bulk.batch-size:1000}")
+    private int batchSize;
+
+    public BulkSoilResponse ingest(Long userId, InputStream json) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        List<SoilReading> batch = new ArrayList<>(batchSize);
+        List<RowError> errors = new ArrayList<>();
+        long index = 0;
+        long accepted = 0;
+        long rejected = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of soil readings");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == null) {
+                    accepted += flush(userId, batch, now);
+                    throw new BadRequestException("Unexpected end of input after " + index + " readings ("
+                            + accepted + " stored)");
+                }
+                JsonNode node = parser.readValueAsTree();
+                List<String> problems = new ArrayList<>();
+                SoilReading reading = toReading(node, problems);
+                if (reading != null) {
+                    validate(reading, problems);
+                }
+                if (problems.isEmpty()) {
+                    batch.add(reading);
+                    if (batch.size() >= batchSize) {
+                        accepted += flush(userId, batch, now);
+                    }
+                } else {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new RowError(index, problems));
+                    }
+                }
+                index++;
+            }
+            accepted += flush(userId, batch, now);
+        } catch (JsonParseException e) {
+            // Readings validated before the syntax error are kept, as committed batches are.
+            accepted += flush(userId, batch, now);
+            throw new BadRequestException("Malformed JSON after " + index + " readings (" + accepted + " stored): "
+                    + e.getOriginalMessage());
+        }
+        log.info("Bulk soil ingest for user {}: received={}, accepted={}, rejected={}", userId, index, accepted, rejected);
+        return BulkSoilResponse.builder()
+                .received(index)
+                .accepted(accepted)
+                .rejected(rejected)
+                .errors(errors)
+                .build();
+    }
+
+    private SoilReading toReading(JsonNode node, List<String> problems) {
+        if (!node.isObject()) {
+            problems.add("Expected an object");
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(node, SoilReading.class);
+        } catch (IOException e) {
+            problems.add("Unreadable reading: " + firstLine(e.getMessage()));
+            return null;
+        }
+    }
+
+    private void validate(SoilReading reading, List<String> problems) {
+        Set<ConstraintViolation<SoilReading>> violations = validator.validate(reading);
+        violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .forEach(v -> problems.add(v.getPropertyPath() + ": " + v.getMessage()));
+    }
+
+    private int flush(Long userId, List<SoilReading> batch, LocalDateTime now) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        soilDataBatchRepository.insertAll(userId, batch, now);
+        batch.clear();
+        return size;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "invalid value";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
@@ -0,0 +1,244 @@
+package com.crop.service;
+
+import com.crop.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Output format of a streamed response (bulk scoring, exports) and its row writer.
+ *
+ * <p>Rows are written one field at a time in column order, so no per-row map or DTO is built.
+ * NDJSON writes one object per line; CSV writes a header line, then one quoted-as-needed line per row.
+ */
+public enum StreamFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    StreamFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static StreamFormat parse(String value) {
+        try {
+            return StreamFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported format: " + value + " (use ndjson or csv)");
+        }
+    }
+
+    /** Row writer over {@code writer}; the caller flushes it and owns the underlying stream. */
+    public RowWriter open(Writer writer, ObjectMapper objectMapper, Column... columns) throws IOException {
+        return this == CSV ? new CsvRowWriter(writer, columns) : new NdjsonRowWriter(objectMapper, writer, columns);
+    }
+
+    /** A column's CSV header name and NDJSON field name. */
+    public record Column(String csvName, String jsonName) {
+
+        public static Column of(String name) {
+            return new Column(name, name);
+        }
+    }
+
+    /**
+     * Writes rows of the columns it was opened with. Each row is {@link #startRow()}, one value call
+     * per column in order, then {@link #endRow()}. A null string is JSON null or an empty CSV field;
+     * {@link #absent()} leaves the field out of the JSON object altogether.
+     */
+    public interface RowWriter {
+
+        /** CSV header line; nothing for NDJSON. */
+        void start() throws IOException;
+
+        void startRow() throws IOException;
+
+        void value(long value) throws IOException;
+
+        void value(double value) throws IOException;
+
+        void value(String value) throws IOException;
+
+        void nullValue() throws IOException;
+
+        void absent() throws IOException;
+
+        void endRow() throws IOException;
+
+        /** Push buffered rows to the client. */
+        void flush() throws IOException;
+    }
+
+    /**
+     * {@code value} as one CSV field, quoted only when it contains a comma, quote or line break.
+     * Text starting with {@code = + - @}, a tab or a carriage return gets a leading {@code '} first,
+     * so a spreadsheet shows it as text instead of evaluating it as a formula. Numbers are written
+     * by the {@code value(long)} and {@code value(double)} overloads and are never prefixed.
+     */
+    static void appendCsvField(StringBuilder line, String value) {
+        if (startsLikeFormula(value)) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+        } else {
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static boolean startsLikeFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final Column[] columns;
+        private int column;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, Writer writer, Column[] columns) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void startRow() throws IOException {
+            json.writeStartObject();
+            column = 0;
+        }
+
+        @Override
+        public void value(long value) throws IOException {
+            json.writeFieldName(columns[column++].jsonName());
+            json.writeNumber(value);
+        }
+
+        @Override
+        public void value(double value) throws IOException {
+            json.writeFieldName(columns[column++].jsonName());
+            json.writeNumber(value);
+        }
+
+        @Override
+        public void value(String value) throws IOException {
+            json.writeFieldName(columns[column++].jsonName());
+            json.writeString(value);
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            json.writeFieldName(columns[column++].jsonName());
+            json.writeNull();
+        }
+
+        @Override
+        public void absent() {
+            column++;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final Column[] columns;
+        private final StringBuilder line = new StringBuilder(128);
+        private int column;
+
+        CsvRowWriter(Writer writer, Column[] columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsvField(line, columns[i].csvName());
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+
+        @Override
+        public void startRow() {
+            line.setLength(0);
+            column = 0;
+        }
+
+        @Override
+        public void value(long value) {
+            separator().append(value);
+        }
+
+        @Override
+        public void value(double value) {
+            separator().append(value);
+        }
+
+        @Override
+        public void value(String value) {
+            separator();
+            if (value != null) {
+                appendCsvField(line, value);
+            }
+        }
+
+        @Override
+        public void nullValue() {
+            separator();
+        }
+
+        @Override
+        public void absent() {
+            separator();
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            line.append('\n');
+            writer.append(line);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private StringBuilder separator() {
+            if (column++ > 0) {
+                line.append(',');
+            }
+            return line;
+        }
+    }
+}
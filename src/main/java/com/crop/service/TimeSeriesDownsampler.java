@@ -0,0 +1,101 @@
+package com.crop.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass downsampling of a multi-series time series into equal-width time buckets over
+ * [from, to). Each bucket keeps count, sum, min and max per series, so memory is
+ * O(buckets x series) however many rows are read, and rows may arrive in any order.
+ *
+ * <p>All series share one bucket grid, so a chart can plot them against a single label axis; the
+ * min/max envelope keeps spikes that a plain average would flatten.
+ */
+final class TimeSeriesDownsampler {
+
+    private final long fromMillis;
+    private final long spanMillis;
+    private final int buckets;
+    private final long[] counts;
+    private final double[][] sums;
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    TimeSeriesDownsampler(LocalDateTime from, LocalDateTime to, int buckets, int series) {
+        this.fromMillis = Timestamp.valueOf(from).getTime();
+        this.spanMillis = Math.max(1, Timestamp.valueOf(to).getTime() - fromMillis);
+        this.buckets = buckets;
+        this.counts = new long[buckets];
+        this.sums = new double[series][buckets];
+        this.mins = new double[series][buckets];
+        this.maxs = new double[series][buckets];
+    }
+
+    /** Add one reading; {@code values} holds one value per series. Readings outside the range are ignored. */
+    void add(Timestamp time, double[] values) {
+        add(time, 1, values, values, values);
+    }
+
+    /**
+     * Add a pre-aggregated sample of {@code count} readings (per series: sum, min, max), placed at
+     * {@code time}. Means stay weighted by reading count when raw and aggregated data are mixed.
+     */
+    void add(Timestamp time, long count, double[] sums, double[] lows, double[] highs) {
+        long offset = time.getTime() - fromMillis;
+        if (offset < 0 || offset >= spanMillis || count <= 0) {
+            return;
+        }
+        int b = (int) (offset * buckets / spanMillis);
+        boolean first = counts[b] == 0;
+        counts[b] += count;
+        for (int s = 0; s < sums.length; s++) {
+            this.sums[s][b] += sums[s];
+            mins[s][b] = first ? lows[s] : Math.min(mins[s][b], lows[s]);
+            maxs[s][b] = first ? highs[s] : Math.max(maxs[s][b], highs[s]);
+        }
+    }
+
+    /**
+     * Chart model for the non-empty buckets: {@code labelKey} holds each bucket's start time and, for
+     * each series name, {@code name} is the bucket mean and {@code nameMin}/{@code nameMax} its range.
+     */
+    Map<String, Object> toModel(String labelKey, String... names) {
+        List<String> labels = new ArrayList<>();
+        List<List<Double>> means = new ArrayList<>();
+        List<List<Double>> lows = new ArrayList<>();
+        List<List<Double>> highs = new ArrayList<>();
+        for (int s = 0; s < names.length; s++) {
+            means.add(new ArrayList<>());
+            lows.add(new ArrayList<>());
+            highs.add(new ArrayList<>());
+        }
+        for (int b = 0; b < buckets; b++) {
+            if (counts[b] == 0) {
+                continue;
+            }
+            long start = fromMillis + b * spanMillis / buckets;
+            labels.add(new Timestamp(start).toLocalDateTime().toString().substring(0, 16));
+            for (int s = 0; s < names.length; s++) {
+                means.get(s).add(round(sums[s][b] / counts[b]));
+                lows.get(s).add(round(mins[s][b]));
+                highs.get(s).add(round(maxs[s][b]));
+            }
+        }
+        Map<String, Object> model = new HashMap<>();
+        model.put(labelKey, labels);
+        for (int s = 0; s < names.length; s++) {
+            model.put(names[s], means.get(s));
+            model.put(names[s] + "Min", lows.get(s));
+            model.put(names[s] + "Max", highs.get(s));
+        }
+        return model;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,312 @@
+package com.crop.service;
+
+import com.crop.dto.WeatherResponse;
+import com.crop.entity.WeatherData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process cache of current weather per location, in front of {@link WeatherService}. Entries
+ * are keyed by canonical location ({@link LocationResolver}), so spellings of one city share one.
+ *
+ * <p>Entries are fresh for {@code weather.cache.ttl-seconds}. Concurrent misses for one location
+ * share a single in-flight load, so a burst for a new city makes one OpenWeather call and one
+ * insert. A miss first accepts a stored row younger than the TTL (warm start after a restart).
+ * Once an entry is older than {@code refresh-ahead} of its TTL, the next read returns it and
+ * starts a background refresh; {@link WeatherPrefetcher} does the same ahead of time for the most
+ * requested locations. Returned responses are shared; callers must not modify them.
+ *
+ * <p>Loads are started eagerly and are not tied to the caller's subscription: a cancelled request
+ * does not cancel a fetch other callers may be waiting on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherCache {
+
+    private final WeatherService weatherService;
+    private final Scheduler persistenceScheduler;
+    private final MeterRegistry meterRegistry;
+    private final LocationDemand locationDemand;
+    private final LocationResolver locationResolver;
+
+    @Value("${weather.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${weather.cache.refresh-ahead:0.8}")
+    private double refreshAhead;
+
+    @Value("${weather.cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private long ttlNanos;
+    private long refreshAfterNanos;
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+    private Counter refreshes;
+    private Counter databaseLoads;
+    private Counter apiLoads;
+
+    private record Loaded(WeatherResponse weather, long loadedAtNanos) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Loaded> value = new CompletableFuture<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+    }
+
+    @PostConstruct
+    void start() {
+        ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        refreshAfterNanos = (long) (ttlNanos * refreshAhead);
+        hits = requestCounter("hit");
+        misses = requestCounter("miss");
+        coalesced = requestCounter("coalesced");
+        refreshes = Counter.builder("weather.cache.refreshes")
+                .description("Background refresh-ahead loads")
+                .register(meterRegistry);
+        databaseLoads = loadCounter("database");
+        apiLoads = loadCounter("api");
+        Gauge.builder("weather.cache.size", entries, Map::size)
+                .description("Locations with cached weather")
+                .register(meterRegistry);
+    }
+
+    private Counter requestCounter(String result) {
+        return Counter.builder("weather.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loadCounter(String source) {
+        return Counter.builder("weather.cache.loads")
+                .description("Completed cache loads by where the weather came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current weather for a location, from cache when fresh. Blocks on a miss; use
+     * {@link #getAsync(String)} from reactive code.
+     */
+    public WeatherResponse get(String location) {
+        return getAsync(location).block();
+    }
+
+    public double getRainfall(String location) {
+        Double rainfall = get(location).getRainfall();
+        return rainfall == null ? 0.0 : rainfall;
+    }
+
+    /**
+     * Current weather for a location. Errors from a load reach every caller that was waiting on it,
+     * and the failed entry is dropped so the next call retries. Successful reads count towards the
+     * location's demand ({@link LocationDemand}), which drives the prefetcher.
+     */
+    public Mono<WeatherResponse> getAsync(String location) {
+        return lookup(cacheKey(location), location).doOnNext(weather -> {
+            String resolved = weather.getLocation() != null ? weather.getLocation() : location;
+            locationDemand.record(LocationResolver.normalize(resolved), resolved);
+        });
+    }
+
+    private Mono<WeatherResponse> lookup(String key, String location) {
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry created = new Entry();
+                if (entries.putIfAbsent(key, created) == null) {
+                    misses.increment();
+                    evictIfFull();
+                    return load(key, created, location, true);
+                }
+                continue;
+            }
+            if (!entry.value.isDone()) {
+                coalesced.increment();
+                return await(entry);
+            }
+            if (entry.value.isCompletedExceptionally()) {
+                entries.remove(key, entry);
+                continue;
+            }
+            Loaded loaded = entry.value.join();
+            long age = System.nanoTime() - loaded.loadedAtNanos();
+            if (age < ttlNanos) {
+                hits.increment();
+                if (age >= refreshAfterNanos) {
+                    refreshInBackground(key, entry, location);
+                }
+                return Mono.just(loaded.weather());
+            }
+            Entry replacement = new Entry();
+            if (entries.replace(key, entry, replacement)) {
+                misses.increment();
+                return load(key, replacement, location, false);
+            }
+        }
+    }
+
+    /**
+     * Load a location ahead of demand when its entry is missing, expired, or expires within
+     * {@code horizonNanos}. Returns true if a load was started, false if the entry is fresh enough
+     * or already loading. Used by {@link WeatherPrefetcher}; not counted as a request.
+     */
+    boolean prefetch(String location, long horizonNanos) {
+        String key = cacheKey(location);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry created = new Entry();
+                if (entries.putIfAbsent(key, created) == null) {
+                    evictIfFull();
+                    load(key, created, location, true);
+                    return true;
+                }
+                continue;
+            }
+            if (!entry.value.isDone()) {
+                return false;
+            }
+            if (entry.value.isCompletedExceptionally()) {
+                entries.remove(key, entry);
+                continue;
+            }
+            long age = System.nanoTime() - entry.value.join().loadedAtNanos();
+            if (age < ttlNanos - horizonNanos) {
+                return false;
+            }
+            if (age < ttlNanos) {
+                return refreshInBackground(key, entry, location);
+            }
+            Entry replacement = new Entry();
+            if (entries.replace(key, entry, replacement)) {
+                load(key, replacement, location, false);
+                return true;
+            }
+        }
+    }
+
+    long ttlNanos() {
+        return ttlNanos;
+    }
+
+    /** Entries are keyed by the normalized canonical key once a location is resolved, else by its normalized text. */
+    private String cacheKey(String location) {
+        return LocationResolver.normalize(locationResolver.keyFor(location));
+    }
+
+    private Mono<WeatherResponse> load(String key, Entry entry, String location, boolean acceptStored) {
+        fetch(location, acceptStored).subscribe(
+                loaded -> {
+                    entry.value.complete(loaded);
+                    adopt(key, entry, loaded);
+                },
+                e -> {
+                    entries.remove(key, entry);
+                    entry.value.completeExceptionally(e);
+                });
+        return await(entry);
+    }
+
+    /**
+     * A load for text that was not yet resolved returns the canonical key; move the entry there so
+     * every spelling of the city shares it. An entry already under that key is kept.
+     */
+    private void adopt(String key, Entry entry, Loaded loaded) {
+        String location = loaded.weather().getLocation();
+        if (location == null) {
+            return;
+        }
+        String canonical = LocationResolver.normalize(location);
+        if (!canonical.equals(key)) {
+            entries.putIfAbsent(canonical, entry);
+            entries.remove(key, entry);
+        }
+    }
+
+    private Mono<Loaded> fetch(String location, boolean acceptStored) {
+        Mono<Loaded> remote = weatherService.fetchAndStoreWeatherAsync(location)
+                .map(weather -> new Loaded(weather, System.nanoTime()))
+                .doOnNext(loaded -> apiLoads.increment());
+        if (!acceptStored) {
+            return remote;
+        }
+        return Mono.fromCallable(() -> storedIfFresh(location))
+                .subscribeOn(persistenceScheduler)
+                .switchIfEmpty(remote);
+    }
+
+    /** Latest stored row if younger than the TTL, else null (empty Mono). */
+    private Loaded storedIfFresh(String location) {
+        Optional<WeatherData> stored = weatherService.getLatestForLocation(location);
+        if (stored.isEmpty() || stored.get().getRecordedDate() == null) {
+            return null;
+        }
+        long age = Duration.between(stored.get().getRecordedDate(), LocalDateTime.now()).toNanos();
+        if (age < 0 || age >= ttlNanos) {
+            return null;
+        }
+        databaseLoads.increment();
+        return new Loaded(WeatherService.toResponse(stored.get()), System.nanoTime() - age);
+    }
+
+    private static Mono<WeatherResponse> await(Entry entry) {
+        return Mono.fromFuture(entry.value, true).map(Loaded::weather);
+    }
+
+    private boolean refreshInBackground(String key, Entry entry, String location) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        fetch(location, false)
+                .doFinally(signal -> entry.refreshing.set(false))
+                .subscribe(
+                        loaded -> {
+                            Entry refreshed = new Entry();
+                            refreshed.value.complete(loaded);
+                            if (entries.replace(key, entry, refreshed)) {
+                                refreshes.increment();
+                            }
+                        },
+                        e -> log.warn("Weather refresh-ahead failed for {}: {}", location, e.getMessage()));
+        return true;
+    }
+
+    /** Over capacity: drop expired entries first, then arbitrary ones. */
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> e.value.isDone() && !e.value.isCompletedExceptionally()
+                && now - e.value.join().loadedAtNanos() >= ttlNanos);
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Entry e = it.next();
+            if (e.value.isDone()) {
+                it.remove();
+            }
+        }
+    }
+}
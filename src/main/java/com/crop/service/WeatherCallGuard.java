@@ -0,0 +1,224 @@
+package com.crop.service;
+
+import com.crop.exception.WeatherUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker and bulkhead around OpenWeather calls, so an upstream outage fails fast instead
+ * of holding request threads for the full response timeout.
+ *
+ * <p>The breaker keeps the outcome of the last {@code sliding-window} calls. A call fails if it
+ * gets no usable answer (timeout, connection or decode error), a 5xx or 429, or takes longer than
+ * {@code slow-call-ms}; other 4xx answers (unknown city, bad key) mean the API is up. Once
+ * {@code minimum-calls} are recorded and the failed share reaches {@code failure-rate-threshold}
+ * percent, the circuit opens and calls are rejected for {@code open-seconds}. Then up to
+ * {@code half-open-calls} trial calls go through: any failure reopens the circuit, all succeeding
+ * closes it with a fresh window.
+ *
+ * <p>The bulkhead caps concurrent calls at {@code weather.bulkhead.max-concurrent-calls}; a call
+ * over the cap is rejected at once rather than queued. Rejections are
+ * {@link WeatherUnavailableException}s. State changes are rare and cheap, so one monitor guards them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherCallGuard {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${weather.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.circuit-breaker.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${weather.circuit-breaker.sliding-window:20}")
+    private int slidingWindow;
+
+    @Value("${weather.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${weather.circuit-breaker.slow-call-ms:3000}")
+    private long slowCallMs;
+
+    @Value("${weather.circuit-breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${weather.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${weather.bulkhead.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    private Semaphore bulkhead;
+    private long slowCallNanos;
+    private long openNanos;
+    private Counter rejectedOpen;
+    private Counter rejectedFull;
+
+    // Guarded by this.
+    private State state = State.CLOSED;
+    private boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    @PostConstruct
+    void start() {
+        bulkhead = new Semaphore(maxConcurrentCalls);
+        outcomes = new boolean[slidingWindow];
+        slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        rejectedOpen = rejectionCounter("circuit_open");
+        rejectedFull = rejectionCounter("bulkhead_full");
+        Gauge.builder("weather.circuit.state", this, g -> g.state().ordinal())
+                .description("OpenWeather circuit: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("weather.bulkhead.active", bulkhead, b -> maxConcurrentCalls - b.availablePermits())
+                .description("OpenWeather calls in flight")
+                .register(meterRegistry);
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("weather.calls.rejected")
+                .description("OpenWeather calls not made")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run {@code call} if the circuit and the bulkhead allow it, recording its outcome; otherwise
+     * fail with {@link WeatherUnavailableException} without subscribing to it.
+     */
+    <T> Mono<T> protect(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejectedOpen.increment();
+                return Mono.error(new WeatherUnavailableException("OpenWeather circuit is open"));
+            }
+            if (!bulkhead.tryAcquire()) {
+                abandon();
+                rejectedFull.increment();
+                return Mono.error(new WeatherUnavailableException("Too many concurrent OpenWeather calls"));
+            }
+            long startNanos = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> record(isSlow(startNanos)))
+                    .doOnError(e -> record(isFailure(e) || isSlow(startNanos)))
+                    .doOnCancel(this::abandon)
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+            log.info("OpenWeather circuit half-open: allowing {} trial calls", halfOpenCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /** A permitted call ended without an outcome (cancelled, or bulkhead full): free its trial slot. */
+    private synchronized void abandon() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    private synchronized void record(boolean failed) {
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failed) {
+                    open("trial call failed");
+                } else if (++trialsSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == outcomes.length) {
+                    if (outcomes[next]) {
+                        failures--;
+                    }
+                } else {
+                    recorded++;
+                }
+                outcomes[next] = failed;
+                next = (next + 1) % outcomes.length;
+                if (failed) {
+                    failures++;
+                }
+                if (recorded >= minimumCalls && failures * 100.0 >= failureRateThreshold * recorded) {
+                    open(failures + " of the last " + recorded + " calls failed");
+                }
+            }
+            case OPEN -> {
+                // Late result of a call started before the circuit opened.
+            }
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        log.warn("OpenWeather circuit open for {}s: {}", openSeconds, reason);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        log.info("OpenWeather circuit closed");
+    }
+
+    private boolean isSlow(long startNanos) {
+        return System.nanoTime() - startNanos > slowCallNanos;
+    }
+
+    /** Only a 4xx other than 429 shows the API is up; timeouts, I/O and decode errors all count. */
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof WebClientResponseException wce) {
+            int status = wce.getStatusCode().value();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+}
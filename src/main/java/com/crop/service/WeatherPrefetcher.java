@@ -0,0 +1,109 @@
+package com.crop.service;
+
+import com.crop.service.LocationDemand.Hot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps weather for the most requested locations loaded before it goes stale, so requests for
+ * popular districts are served from {@link WeatherCache} instead of waiting on OpenWeather.
+ *
+ * <p>Every {@code weather.prefetch.interval-ms} the hottest locations ({@link LocationDemand}, with
+ * a {@code half-life-minutes} decay) are checked, and any whose cache entry is missing or expires
+ * before the tick after next is reloaded through the cache, which persists via
+ * {@link WeatherService}. Loads are paced by a token bucket of
+ * {@code max-calls-per-minute}; locations that do not fit wait for a later tick, hottest first.
+ * User-triggered misses do not draw on this budget.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherPrefetcher {
+
+    private final WeatherCache weatherCache;
+    private final LocationDemand locationDemand;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${weather.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.prefetch.interval-ms:30000}")
+    private long intervalMs;
+
+    @Value("${weather.prefetch.max-locations:50}")
+    private int maxLocations;
+
+    @Value("${weather.prefetch.min-requests:2}")
+    private double minRequests;
+
+    @Value("${weather.prefetch.half-life-minutes:30}")
+    private double halfLifeMinutes;
+
+    @Value("${weather.prefetch.max-calls-per-minute:30}")
+    private double maxCallsPerMinute;
+
+    private long horizonNanos;
+    private double decayPerTick;
+    private double tokens;
+    private long refilledAtNanos;
+    private Counter started;
+    private Counter deferred;
+
+    @PostConstruct
+    void start() {
+        horizonNanos = TimeUnit.MILLISECONDS.toNanos(2 * intervalMs);
+        if (enabled && horizonNanos >= weatherCache.ttlNanos()) {
+            throw new IllegalStateException("weather.prefetch.interval-ms must be below half of weather.cache.ttl-seconds");
+        }
+        decayPerTick = Math.pow(0.5, intervalMs / (halfLifeMinutes * 60_000.0));
+        tokens = maxCallsPerMinute;
+        refilledAtNanos = System.nanoTime();
+        started = Counter.builder("weather.prefetch.loads")
+                .description("Weather loads started ahead of demand")
+                .register(meterRegistry);
+        deferred = Counter.builder("weather.prefetch.deferred")
+                .description("Hot locations not checked in a tick because the call budget ran out")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${weather.prefetch.interval-ms:30000}",
+            fixedDelayString = "${weather.prefetch.interval-ms:30000}")
+    public void prefetch() {
+        if (!enabled) {
+            return;
+        }
+        refill();
+        List<Hot> hot = locationDemand.rank(decayPerTick, minRequests, maxLocations);
+        int loads = 0;
+        for (int i = 0; i < hot.size(); i++) {
+            if (tokens < 1) {
+                deferred.increment(hot.size() - i);
+                break;
+            }
+            if (weatherCache.prefetch(hot.get(i).location(), horizonNanos)) {
+                tokens--;
+                loads++;
+            }
+        }
+        started.increment(loads);
+        if (loads > 0) {
+            log.debug("Weather prefetch: {} loads started for {} hot locations", loads, hot.size());
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double minutes = (now - refilledAtNanos) / 60e9;
+        tokens = Math.min(maxCallsPerMinute, tokens + minutes * maxCallsPerMinute);
+        refilledAtNanos = now;
+    }
+}
@@ -0,0 +1,83 @@
+package com.crop.service;
+
+import com.crop.repository.WeatherRollupRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps weather_data bounded: raw readings older than {@code weather.retention.raw-days} are rolled
+ * into hourly aggregates, and hourly aggregates older than {@code weather.retention.hourly-days}
+ * into daily ones, which are kept. Work is done in chunks of {@code weather.retention.chunk-size},
+ * one short transaction each, until nothing older than the cutoff is left.
+ *
+ * <p>Cutoffs are aligned to whole hours and days so a bucket is only compacted once complete.
+ * Raw retention must stay well above the weather cache TTL: the cache only reuses the latest raw row
+ * of a location while it is fresh. When live weather is unavailable, recommendations fall back to
+ * the newest reading of any tier, so a compacted location still scores with its last rollup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherRetentionJob {
+
+    private final WeatherRollupRepository weatherRollupRepository;
+
+    @Value("${weather.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.retention.raw-days:7}")
+    private int rawDays;
+
+    @Value("${weather.retention.hourly-days:90}")
+    private int hourlyDays;
+
+    @Value("${weather.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @PostConstruct
+    void validate() {
+        if (rawDays < 1 || hourlyDays <= rawDays || chunkSize < 1) {
+            throw new IllegalStateException("weather.retention requires 1 <= raw-days < hourly-days and chunk-size >= 1");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${weather.retention.initial-delay-ms:60000}",
+            fixedDelayString = "${weather.retention.interval-ms:3600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime rawCutoff = now.minusDays(rawDays).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourlyCutoff = now.minusDays(hourlyDays).truncatedTo(ChronoUnit.DAYS);
+
+        long start = System.nanoTime();
+        long raw = drain(() -> weatherRollupRepository.compactRaw(rawCutoff, chunkSize));
+        long hourly = drain(() -> weatherRollupRepository.compactHourly(hourlyCutoff, chunkSize));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (raw > 0 || hourly > 0) {
+            log.info("Weather retention: {} raw readings before {} rolled into hours, {} hourly rows before {} into days ({} ms)",
+                    raw, rawCutoff, hourly, hourlyCutoff, millis);
+        } else {
+            log.debug("Weather retention: nothing to compact");
+        }
+    }
+
+    private long drain(IntSupplier chunk) {
+        long total = 0;
+        int moved;
+        do {
+            moved = chunk.getAsInt();
+            total += moved;
+        } while (moved == chunkSize);
+        return total;
+    }
+}
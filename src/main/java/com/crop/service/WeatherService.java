@@ -1,26 +1,50 @@
 package com.crop.service;
 
+import com.crop.dto.OpenWeatherPayload;
 import com.crop.dto.WeatherResponse;
 import com.crop.entity.WeatherData;
 import com.crop.exception.BadRequestException;
+import com.crop.exception.WeatherUnavailableException;
 import com.crop.repository.WeatherDataRepository;
+import com.crop.repository.WeatherRollupRepository;
+import com.crop.service.LocationResolver.Canonical;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.ReadTimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Fetches weather from OpenWeather API and persists to WeatherData.
  * Handles timeout and API errors.
+ *
+ * <p>The remote call is non-blocking; only the insert runs on the bounded persistence scheduler,
+ * so no servlet thread or database connection is held while OpenWeather responds.
+ *
+ * <p>Every OpenWeather call is timed as {@code weather.api.requests}, tagged with the HTTP status,
+ * or {@code TIMEOUT} / {@code IO_ERROR} when no response arrived. Calls go through
+ * {@link WeatherCallGuard}; a rejected call fails with {@link WeatherUnavailableException}.
  */
 @Service
 @RequiredArgsConstructor
@@ -29,6 +53,12 @@ public class WeatherService {
 
     private final WebClient webClient;
     private final WeatherDataRepository weatherDataRepository;
+    private final WeatherRollupRepository weatherRollupRepository;
+    private final Scheduler persistenceScheduler;
+    private final LocationResolver locationResolver;
+    private final MeterRegistry meterRegistry;
+    private final WeatherCallGuard weatherCallGuard;
+    private final Map<String, Timer> callTimers = new ConcurrentHashMap<>();
 
     @Value("${openweather.api.key}")
     private String apiKey;
@@ -37,92 +67,137 @@ public class WeatherService {
     private String baseUrl;
 
     /**
-     * Fetch current weather for location (city name) and persist.
-     * Rainfall: OpenWeather returns "rain.1h" or "rain.3h" in mm; we use that or 0.
+     * Fetch current weather for location (city name) and persist, without blocking the caller.
+     * Errors are mapped to {@link BadRequestException}, except {@link WeatherUnavailableException}
+     * when the call was not made.
+     *
+     * <p>A location already resolved by {@link LocationResolver} is fetched by city id; otherwise by
+     * name, and the city in the response is registered. The row and the response carry the
+     * canonical key (e.g. "Pune,IN"), not the text as typed.
      */
-    @Transactional
-    public WeatherResponse fetchAndStoreWeather(String location) {
+    public Mono<WeatherResponse> fetchAndStoreWeatherAsync(String location) {
         if (location == null || location.isBlank()) {
-            throw new BadRequestException("Location is required");
+            return Mono.error(new BadRequestException("Location is required"));
         }
-        try {
-            Map<String, Object> response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .scheme("https")
-                            .host("api.openweathermap.org")
-                            .path("/data/2.5/weather")
-                            .queryParam("q", location)
+        Optional<Canonical> known = locationResolver.find(location);
+        return webClient.get()
+                .uri(baseUrl, uriBuilder -> {
+                    known.ifPresentOrElse(
+                            city -> uriBuilder.queryParam("id", city.cityId()),
+                            () -> uriBuilder.queryParam("q", location.trim()));
+                    return uriBuilder
                             .queryParam("appid", apiKey)
                             .queryParam("units", "metric")
-                            .build())
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block();
+                            .build();
+                })
+                .retrieve()
+                .toEntity(OpenWeatherPayload.class)
+                .transform(this::timed)
+                .transform(weatherCallGuard::protect)
+                .mapNotNull(HttpEntity::getBody)
+                .switchIfEmpty(Mono.error(() -> new BadRequestException("No weather data received from API")))
+                .publishOn(persistenceScheduler)
+                .map(payload -> store(location, known, payload))
+                .onErrorMap(e -> translate(location, e));
+    }
+
+    /** Time the call from subscription to response or error; the clock starts per subscriber. */
+    private Mono<ResponseEntity<OpenWeatherPayload>> timed(Mono<ResponseEntity<OpenWeatherPayload>> call) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return call
+                    .doOnNext(response -> recordCall(startNanos, String.valueOf(response.getStatusCode().value())))
+                    .doOnError(e -> recordCall(startNanos, statusOf(e)));
+        });
+    }
+
+    private void recordCall(long startNanos, String status) {
+        callTimers.computeIfAbsent(status, this::callTimer)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
 
-            if (response == null) {
-                throw new BadRequestException("No weather data received from API");
+    private Timer callTimer(String status) {
+        return Timer.builder("weather.api.requests")
+                .description("OpenWeather current-weather calls")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String statusOf(Throwable e) {
+        if (e instanceof WebClientResponseException wce) {
+            return String.valueOf(wce.getStatusCode().value());
+        }
+        if (e instanceof WebClientRequestException) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ReadTimeoutException || cause instanceof TimeoutException) {
+                    return "TIMEOUT";
+                }
             }
+        }
+        return "IO_ERROR";
+    }
 
-            double temp = getDouble(response, "main", "temp");
-            double humidity = getDouble(response, "main", "humidity");
-            double rainfall = getRainfall(response);
-
-            WeatherData data = WeatherData.builder()
-                    .temperature(temp)
-                    .humidity(humidity)
-                    .rainfall(rainfall)
-                    .location(location)
-                    .recordedDate(LocalDateTime.now())
-                    .build();
-            data = weatherDataRepository.save(data);
-            log.info("Weather stored for {}: temp={}, humidity={}, rainfall={}", location, temp, humidity, rainfall);
-
-            return WeatherResponse.builder()
-                    .temperature(data.getTemperature())
-                    .humidity(data.getHumidity())
-                    .rainfall(data.getRainfall())
-                    .location(data.getLocation())
-                    .recordedAt(data.getRecordedDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .build();
-        } catch (WebClientResponseException e) {
-            log.error("OpenWeather API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            if (e.getStatusCode().value() == 401) {
-                throw new BadRequestException("Invalid OpenWeather API key. Set openweather.api.key in application.properties");
+    private WeatherResponse store(String location, Optional<Canonical> known, OpenWeatherPayload payload) {
+        String key = known.or(() -> locationResolver.register(location, payload))
+                .map(Canonical::key)
+                .orElseGet(location::trim);
+        WeatherData data = WeatherData.builder()
+                .temperature(payload.temperature())
+                .humidity(payload.humidity())
+                .rainfall(payload.rainfall())
+                .location(key)
+                .recordedDate(LocalDateTime.now())
+                .build();
+        data = weatherDataRepository.save(data);
+        log.info("Weather stored for {}: temp={}, humidity={}, rainfall={}",
+                location, data.getTemperature(), data.getHumidity(), data.getRainfall());
+        return toResponse(data);
+    }
+
+    private static Throwable translate(String location, Throwable e) {
+        if (e instanceof BadRequestException || e instanceof WeatherUnavailableException) {
+            return e;
+        }
+        if (e instanceof WebClientResponseException wce) {
+            log.error("OpenWeather API error: {} - {}", wce.getStatusCode(), wce.getResponseBodyAsString());
+            if (wce.getStatusCode().value() == 401) {
+                return new BadRequestException("Invalid OpenWeather API key. Set openweather.api.key in application.properties");
             }
-            if (e.getStatusCode().value() == 404) {
-                throw new BadRequestException("Location not found: " + location);
+            if (wce.getStatusCode().value() == 404) {
+                return new BadRequestException("Location not found: " + location);
             }
-            throw new BadRequestException("Weather API error: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Weather fetch failed for {}: {}", location, e.getMessage());
-            throw new BadRequestException("Failed to fetch weather: " + e.getMessage());
+            return new BadRequestException("Weather API error: " + wce.getMessage());
         }
+        log.error("Weather fetch failed for {}: {}", location, e.getMessage());
+        return new BadRequestException("Failed to fetch weather: " + e.getMessage());
     }
 
+    /** Latest stored row under the location's canonical key (or the text itself if unresolved). */
     @Transactional(readOnly = true)
     public Optional<WeatherData> getLatestForLocation(String location) {
-        return weatherDataRepository.findFirstByLocationOrderByRecordedDateDesc(location);
+        return weatherDataRepository.findFirstByLocationOrderByRecordedDateDesc(locationResolver.keyFor(location));
     }
 
-    private double getDouble(Map<String, Object> response, String key1, String key2) {
-        Object main = response.get(key1);
-        if (main instanceof Map) {
-            Object val = ((Map<?, ?>) main).get(key2);
-            if (val instanceof Number) {
-                return ((Number) val).doubleValue();
-            }
-        }
-        return 0.0;
+    /**
+     * Newest reading of any age, for the last-known-good fallback: the latest raw row, or once
+     * retention has compacted them all, the means of the newest rollup bucket. Rows stored before
+     * locations were resolved to canonical keys are found under the text as entered.
+     */
+    @Transactional(readOnly = true)
+    public Optional<WeatherData> getLastKnown(String location) {
+        Set<String> keys = new LinkedHashSet<>(List.of(locationResolver.keyFor(location), location.trim(), location));
+        return weatherDataRepository.findFirstByLocationInOrderByRecordedDateDesc(keys)
+                .or(() -> weatherRollupRepository.findLatest(keys));
     }
 
-    private double getRainfall(Map<String, Object> response) {
-        Object rain = response.get("rain");
-        if (rain instanceof Map) {
-            Map<?, ?> r = (Map<?, ?>) rain;
-            Object v = r.get("1h");
-            if (v == null) v = r.get("3h");
-            if (v instanceof Number) return ((Number) v).doubleValue();
-        }
-        return 0.0;
+    static WeatherResponse toResponse(WeatherData data) {
+        return WeatherResponse.builder()
+                .temperature(data.getTemperature())
+                .humidity(data.getHumidity())
+                .rainfall(data.getRainfall())
+                .location(data.getLocation())
+                .recordedAt(data.getRecordedDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
     }
 }
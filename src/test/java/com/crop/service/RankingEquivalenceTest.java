@@ -0,0 +1,160 @@
+package com.crop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link RecommendationService#rank} must return exactly what a stable sort of the full scan
+ * returns (match count descending, catalog order on ties), whether it goes through the top-1
+ * scan, the {@link BoundedTopK} heap or the {@link CropRangeIndex}.
+ *
+ * <p>Catalogs are random but seeded. Range endpoints and query values come from a coarse grid, so
+ * ties, values exactly on an endpoint and repeated ranges are common. A share of crops accept
+ * everything, so queries often have more than K perfect matches and exercise the early exit.
+ */
+class RankingEquivalenceTest {
+
+    private static final int DEFAULT_INDEX_THRESHOLD = 512;
+    private static final int[] SIZES = {1, 2, 7, 64, 65, 300, 511, 512, 513, 2500, 5000};
+    private static final int[] LIMITS = {0, 1, 2, 3, 5, 10, 64};
+    private static final int QUERIES = 40;
+
+    @Test
+    void scanAndIndexMatchFullSortReference() {
+        Random random = new Random(20240615L);
+        for (int size : SIZES) {
+            List<Object[]> rows = randomRows(random, size);
+            CropRangeSnapshot byDefault = CropRangeSnapshot.fromRows(1, rows, DEFAULT_INDEX_THRESHOLD);
+            CropRangeSnapshot scanned = CropRangeSnapshot.fromRows(1, rows, Integer.MAX_VALUE);
+            CropRangeSnapshot indexed = CropRangeSnapshot.fromRows(1, rows, 1);
+            assertEquals(size >= DEFAULT_INDEX_THRESHOLD, byDefault.index() != null, "index presence at size " + size);
+
+            for (int q = 0; q < QUERIES; q++) {
+                double[] query = randomQuery(random);
+                for (int limit : withCatalogSize(size)) {
+                    Ranked expected = reference(scanned, query, limit);
+                    String context = "size=" + size + " limit=" + limit + " query=" + Arrays.toString(query);
+                    expected.assertSame(rank(byDefault, query, limit), "default " + context);
+                    expected.assertSame(rank(scanned, query, limit), "scan " + context);
+                    expected.assertSame(rank(indexed, query, limit), "index " + context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void perfectMatchesKeepCatalogOrder() {
+        // Every crop matches everything: the answer is the first K crops, whichever path runs.
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row(i, 0, 100, 0, 100, 0, 100, 0, 14, 0, 1000));
+        }
+        double[] query = {50, 50, 50, 7, 500};
+        for (int threshold : new int[] {1, Integer.MAX_VALUE}) {
+            CropRangeSnapshot catalog = CropRangeSnapshot.fromRows(1, rows, threshold);
+            for (int limit : LIMITS) {
+                reference(catalog, query, limit).assertSame(rank(catalog, query, limit), "threshold=" + threshold + " limit=" + limit);
+            }
+        }
+    }
+
+    private static int[] withCatalogSize(int size) {
+        int[] limits = Arrays.copyOf(LIMITS, LIMITS.length + 2);
+        limits[LIMITS.length] = size;
+        limits[LIMITS.length + 1] = size + 5;
+        return limits;
+    }
+
+    private static Ranked rank(CropRangeSnapshot catalog, double[] q, int limit) {
+        RankedCrops ranked = RecommendationService.rank(catalog, q[0], q[1], q[2], q[3], q[4], limit);
+        int[] indices = new int[ranked.size()];
+        int[] factors = new int[ranked.size()];
+        for (int i = 0; i < ranked.size(); i++) {
+            indices[i] = ranked.index(i);
+            factors[i] = ranked.factors(i);
+        }
+        return new Ranked(indices, factors);
+    }
+
+    /** Score every crop, stable-sort by match count descending, keep the first {@code limit}. */
+    private static Ranked reference(CropRangeSnapshot catalog, double[] q, int limit) {
+        List<int[]> scored = new ArrayList<>();
+        for (int i = 0; i < catalog.size(); i++) {
+            scored.add(new int[] {i, catalog.matchCount(i, q[0], q[1], q[2], q[3], q[4])});
+        }
+        scored.sort(Comparator.comparingInt((int[] s) -> s[1]).reversed());
+        int k = Math.min(Math.max(limit, 0), scored.size());
+        int[] indices = new int[k];
+        int[] factors = new int[k];
+        for (int i = 0; i < k; i++) {
+            indices[i] = scored.get(i)[0];
+            factors[i] = scored.get(i)[1];
+        }
+        return new Ranked(indices, factors);
+    }
+
+    private static List<Object[]> randomRows(Random random, int size) {
+        List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(10) == 0) {
+                rows.add(row(i, 0, 200, 0, 200, 0, 200, 0, 14, 0, 2000));
+                continue;
+            }
+            double[] n = range(random, 10, 10);
+            double[] p = range(random, 10, 10);
+            double[] k = range(random, 10, 10);
+            double[] ph = range(random, 14, 1);
+            double[] rain = range(random, 10, 100);
+            rows.add(row(i, n[0], n[1], p[0], p[1], k[0], k[1], ph[0], ph[1], rain[0], rain[1]));
+        }
+        return rows;
+    }
+
+    /** Min and max on a grid of {@code steps} points spaced {@code step} apart; min may equal max. */
+    private static double[] range(Random random, int steps, double step) {
+        int a = random.nextInt(steps + 1);
+        int b = random.nextInt(steps + 1);
+        return new double[] {Math.min(a, b) * step, Math.max(a, b) * step};
+    }
+
+    /** Grid points (on and between range endpoints) and values outside every range. */
+    private static double[] randomQuery(Random random) {
+        return new double[] {
+                gridValue(random, 10, 10),
+                gridValue(random, 10, 10),
+                gridValue(random, 10, 10),
+                gridValue(random, 14, 1),
+                gridValue(random, 10, 100)
+        };
+    }
+
+    private static double gridValue(Random random, int steps, double step) {
+        return switch (random.nextInt(8)) {
+            case 0 -> -step;
+            case 1 -> (steps + 300) * step;
+            case 2, 3 -> (random.nextInt(steps) + 0.5) * step;
+            default -> random.nextInt(steps + 1) * step;
+        };
+    }
+
+    private static Object[] row(long id, double nMin, double nMax, double pMin, double pMax, double kMin, double kMax,
+            double phMin, double phMax, double rainMin, double rainMax) {
+        return new Object[] {id + 1, "Crop " + (id + 1), nMin, nMax, pMin, pMax, kMin, kMax, phMin, phMax, rainMin, rainMax};
+    }
+
+    private record Ranked(int[] indices, int[] factors) {
+
+        void assertSame(Ranked actual, String context) {
+            assertArrayEquals(indices, actual.indices, "indices, " + context);
+            assertArrayEquals(factors, actual.factors, "match counts, " + context);
+        }
+    }
+}